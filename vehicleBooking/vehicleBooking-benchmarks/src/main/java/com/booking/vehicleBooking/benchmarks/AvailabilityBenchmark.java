@@ -0,0 +1,106 @@
+package com.booking.vehicleBooking.benchmarks;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.booking.vehicleBooking.entity.Booking;
+import com.booking.vehicleBooking.entity.Vehicle;
+import com.booking.vehicleBooking.service.impl.VehicleAvailabilityIndex;
+
+//Availability checks. BookingService.vehicleIsAvailable was replaced by VehicleAvailabilityIndex
+//and a DB overlap query, so the index is measured against a linear scan over the vehicle's
+//bookings, which is what the old check did.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AvailabilityBenchmark {
+
+	@Param({"100", "2000"})
+	public int vehicleCount;
+
+	@Param({"10", "200"})
+	public int bookingsPerVehicle;
+
+	private static final int QUERY_COUNT = 1024;
+
+	private VehicleAvailabilityIndex index;
+
+	//queries are precomputed and cycled so branch prediction cannot learn a single answer
+	private Vehicle[] queryVehicles;
+	private LocalDate[] queryCheckIns;
+	private LocalDate[] queryCheckOuts;
+	private int cursor;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		SyntheticData data = new SyntheticData(42);
+		List<Vehicle> vehicles = data.vehicles(vehicleCount);
+		List<Booking> bookings = data.bookings(vehicles, data.users(100), bookingsPerVehicle);
+
+		index = new VehicleAvailabilityIndex();
+		for (Vehicle vehicle : vehicles) {
+			index.putVehicle(vehicle.getId(), vehicle.getVehicleType());
+		}
+		for (Booking booking : bookings) {
+			index.addBooking(booking.getId(), booking.getVehicle().getId(), booking.getCheckInDate(), booking.getCheckOutDate());
+		}
+
+		SyntheticData queries = new SyntheticData(7);
+		queryVehicles = new Vehicle[QUERY_COUNT];
+		queryCheckIns = new LocalDate[QUERY_COUNT];
+		queryCheckOuts = new LocalDate[QUERY_COUNT];
+		for (int i = 0; i < QUERY_COUNT; i++) {
+			//bookings average about five days each, so this covers the whole booked horizon
+			LocalDate[] range = queries.dateRange(bookingsPerVehicle * 5, 7);
+			queryVehicles[i] = vehicles.get((i * 7919) % vehicles.size());
+			queryCheckIns[i] = range[0];
+			queryCheckOuts[i] = range[1];
+		}
+	}
+
+	private int next() {
+		return cursor = (cursor + 1) & (QUERY_COUNT - 1);
+	}
+
+	@Benchmark
+	public boolean linearScan() {
+		int i = next();
+		LocalDate checkIn = queryCheckIns[i];
+		LocalDate checkOut = queryCheckOuts[i];
+		for (Booking booking : queryVehicles[i].getBookings()) {
+			if (booking.getCheckInDate().isBefore(checkOut) && booking.getCheckOutDate().isAfter(checkIn)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Benchmark
+	public boolean indexIsAvailable() {
+		int i = next();
+		return index.isAvailable(queryVehicles[i].getId(), queryCheckIns[i], queryCheckOuts[i]);
+	}
+
+	@Benchmark
+	public List<Long> indexFindAvailableByType() {
+		int i = next();
+		return index.findAvailableVehicleIds(queryCheckIns[i], queryCheckOuts[i], queryVehicles[i].getVehicleType());
+	}
+}
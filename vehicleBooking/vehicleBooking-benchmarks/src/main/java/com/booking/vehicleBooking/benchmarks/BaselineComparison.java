@@ -0,0 +1,73 @@
+package com.booking.vehicleBooking.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+//Compares a JMH JSON result file with the stored baseline and exits with 1 when any benchmark
+//got slower than the allowed tolerance.
+//
+//  java -cp target/benchmarks.jar com.booking.vehicleBooking.benchmarks.BaselineComparison \
+//       baseline/baseline.json target/results.json [tolerancePercent]
+public class BaselineComparison {
+
+	private static final double DEFAULT_TOLERANCE_PERCENT = 10.0;
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("usage: BaselineComparison <baseline.json> <results.json> [tolerancePercent]");
+			System.exit(2);
+		}
+		double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_TOLERANCE_PERCENT;
+
+		Map<String, JsonNode> baseline = load(new File(args[0]));
+		Map<String, JsonNode> results = load(new File(args[1]));
+
+		int regressions = 0;
+		System.out.printf("%-90s %14s %14s %9s%n", "benchmark", "baseline", "current", "change");
+		for (Map.Entry<String, JsonNode> entry : results.entrySet()) {
+			JsonNode current = entry.getValue();
+			JsonNode previous = baseline.get(entry.getKey());
+			String unit = current.path("primaryMetric").path("scoreUnit").asText();
+			double score = current.path("primaryMetric").path("score").asDouble();
+			if (previous == null) {
+				System.out.printf("%-90s %14s %14.3f %9s  %s%n", entry.getKey(), "-", score, "new", unit);
+				continue;
+			}
+
+			double baseScore = previous.path("primaryMetric").path("score").asDouble();
+			double change = (score - baseScore) / baseScore * 100;
+			//throughput modes report ops per time unit, every other mode reports time per op
+			boolean higherIsBetter = "thrpt".equals(current.path("mode").asText());
+			double slowdown = higherIsBetter ? -change : change;
+			boolean regressed = slowdown > tolerance;
+			if (regressed) regressions++;
+
+			System.out.printf("%-90s %14.3f %14.3f %+8.1f%%  %s%s%n", entry.getKey(), baseScore, score, change, unit,
+					regressed ? "  REGRESSION" : "");
+		}
+
+		if (regressions > 0) {
+			System.out.printf("%d benchmark(s) regressed by more than %.1f%%%n", regressions, tolerance);
+			System.exit(1);
+		}
+	}
+
+	//key is the benchmark name, mode and sorted parameters, so param sets are compared like for like
+	private static Map<String, JsonNode> load(File file) throws IOException {
+		Map<String, JsonNode> byKey = new LinkedHashMap<>();
+		for (JsonNode run : new ObjectMapper().readTree(file)) {
+			Map<String, String> params = new TreeMap<>();
+			run.path("params").fields().forEachRemaining(param -> params.put(param.getKey(), param.getValue().asText()));
+			String key = run.path("benchmark").asText().replace("com.booking.vehicleBooking.benchmarks.", "")
+					+ " [" + run.path("mode").asText() + "]" + (params.isEmpty() ? "" : " " + params);
+			byKey.put(key, run);
+		}
+		return byKey;
+	}
+}
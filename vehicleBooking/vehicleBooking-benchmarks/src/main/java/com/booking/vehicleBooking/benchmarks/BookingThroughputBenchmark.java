@@ -0,0 +1,101 @@
+package com.booking.vehicleBooking.benchmarks;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.booking.vehicleBooking.dto.Response;
+import com.booking.vehicleBooking.entity.Booking;
+import com.booking.vehicleBooking.entity.User;
+import com.booking.vehicleBooking.entity.Vehicle;
+import com.booking.vehicleBooking.service.interfac.IBookingService;
+
+//BookingService.saveBooking end to end on H2, in bookings per second. Every thread books its own
+//vehicle, so the threads never wait on the same vehicle lock and the four-thread score should grow
+//with the cores available until the database becomes the limit.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingThroughputBenchmark {
+
+	private static final int VEHICLE_COUNT = 64;
+	private static final int USER_COUNT = 100;
+
+	private H2Fixture fixture;
+	private IBookingService bookingService;
+	private final AtomicInteger nextVehicle = new AtomicInteger();
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		SyntheticData data = new SyntheticData(42);
+		List<Vehicle> vehicles = data.vehicles(VEHICLE_COUNT);
+		List<User> users = data.users(USER_COUNT);
+		//no booking history: the fixture inserts explicit ids, and the bookings saved here take generated ones
+		fixture = H2Fixture.start(vehicles, users, List.of());
+		bookingService = fixture.bean(IBookingService.class);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		fixture.close();
+	}
+
+	//One vehicle per thread, booked back to back from tomorrow on: check out is the next check in
+	@State(Scope.Thread)
+	public static class BookingCursor {
+		Long vehicleId;
+		Long userId;
+		LocalDate checkIn;
+
+		@Setup(Level.Trial)
+		public void setUp(BookingThroughputBenchmark benchmark) {
+			int thread = benchmark.nextVehicle.getAndIncrement();
+			vehicleId = (long) thread + 1;
+			userId = (long) thread % USER_COUNT + 1;
+			checkIn = LocalDate.now().plusDays(1);
+		}
+	}
+
+	@Benchmark
+	public Response saveBooking(BookingCursor cursor) {
+		return book(cursor);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public Response saveBookingFourThreads(BookingCursor cursor) {
+		return book(cursor);
+	}
+
+	private Response book(BookingCursor cursor) {
+		Booking booking = new Booking();
+		booking.setCheckInDate(cursor.checkIn);
+		booking.setCheckOutDate(cursor.checkIn.plusDays(2));
+		booking.setNumOfPassengers(1);
+		booking.setNumOfMiles(100);
+		Response response = bookingService.saveBooking(cursor.vehicleId, cursor.userId, booking);
+		if (response.getStatusCode() != 200) {
+			throw new IllegalStateException("Booking failed: " + response.getMessage());
+		}
+		cursor.checkIn = booking.getCheckOutDate();
+		return response;
+	}
+}
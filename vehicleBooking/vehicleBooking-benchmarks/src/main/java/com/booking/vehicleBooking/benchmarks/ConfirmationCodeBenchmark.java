@@ -0,0 +1,41 @@
+package com.booking.vehicleBooking.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.booking.vehicleBooking.utils.Utils;
+
+//Confirmation codes are drawn from one shared SecureRandom, so the contended run matters as much as the single-thread one
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConfirmationCodeBenchmark {
+
+	@Param({"10"})
+	public int length;
+
+	@Benchmark
+	public String generate() {
+		return Utils.generateRandomConfirmationCode(length);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public String generateContended() {
+		return Utils.generateRandomConfirmationCode(length);
+	}
+}
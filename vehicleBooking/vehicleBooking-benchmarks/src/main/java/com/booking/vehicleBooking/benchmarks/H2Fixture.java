@@ -0,0 +1,96 @@
+package com.booking.vehicleBooking.benchmarks;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.booking.vehicleBooking.VehicleBookingApplication;
+import com.booking.vehicleBooking.entity.Booking;
+import com.booking.vehicleBooking.entity.User;
+import com.booking.vehicleBooking.entity.Vehicle;
+import com.booking.vehicleBooking.service.impl.VehicleAvailabilityIndex;
+
+//The application started on a random port and an in-memory H2 database holding SyntheticData
+//rows, for benchmarks that run the real repository queries. The background jobs are pushed out
+//by an hour so they never run during a measurement.
+public final class H2Fixture implements AutoCloseable {
+
+	private static final int INSERT_BATCH_SIZE = 5000;
+
+	private final ConfigurableApplicationContext context;
+
+	private H2Fixture(ConfigurableApplicationContext context) {
+		this.context = context;
+	}
+
+	public static H2Fixture start(List<Vehicle> vehicles, List<User> users, List<Booking> bookings) {
+		ConfigurableApplicationContext context = new SpringApplicationBuilder(VehicleBookingApplication.class)
+				.run("--server.port=0",
+						"--management.server.port=-1",
+						"--spring.datasource.url=jdbc:h2:mem:benchmarks;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+						"--spring.datasource.driver-class-name=org.h2.Driver",
+						"--spring.datasource.username=sa",
+						"--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+						"--spring.jpa.hibernate.ddl-auto=create-drop",
+						"--spring.main.banner-mode=off",
+						"--logging.level.root=WARN",
+						"--image.storage=local",
+						"--availability.occupancy.flush-interval-ms=3600000",
+						"--outbox.dispatch-interval-ms=3600000");
+		H2Fixture fixture = new H2Fixture(context);
+		fixture.insert(vehicles, users, bookings);
+		//the index was built from the empty database at startup
+		context.getBean(VehicleAvailabilityIndex.class).rebuild();
+		return fixture;
+	}
+
+	public <T> T bean(Class<T> type) {
+		return context.getBean(type);
+	}
+
+	private void insert(List<Vehicle> vehicles, List<User> users, List<Booking> bookings) {
+		JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+		jdbcTemplate.batchUpdate("INSERT INTO users (id, email, name, phone_number, password, role) VALUES (?, ?, ?, ?, ?, ?)",
+				users, INSERT_BATCH_SIZE, (statement, user) -> {
+					statement.setLong(1, user.getId());
+					statement.setString(2, user.getEmail());
+					statement.setString(3, user.getName());
+					statement.setString(4, user.getPhoneNumber());
+					statement.setString(5, user.getPassword());
+					statement.setString(6, user.getRole());
+				});
+		jdbcTemplate.batchUpdate("INSERT INTO vehicles (id, vehicle_type, vehicle_price, vehicle_photo_url, vehicle_description) VALUES (?, ?, ?, ?, ?)",
+				vehicles, INSERT_BATCH_SIZE, (statement, vehicle) -> {
+					statement.setLong(1, vehicle.getId());
+					statement.setString(2, vehicle.getVehicleType());
+					statement.setBigDecimal(3, vehicle.getVehiclePrice());
+					statement.setString(4, vehicle.getVehiclePhotoUrl());
+					statement.setString(5, vehicle.getVehicleDescription());
+				});
+		Timestamp createdAt = Timestamp.valueOf(LocalDateTime.of(SyntheticData.START_DATE.minusDays(30), LocalTime.NOON));
+		jdbcTemplate.batchUpdate("INSERT INTO bookings (id, check_in_date, check_out_date, num_of_passengers, num_of_miles, "
+				+ "booking_confirmation_code, user_id, vehicle_id, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+				bookings, INSERT_BATCH_SIZE, (statement, booking) -> {
+					statement.setLong(1, booking.getId());
+					statement.setDate(2, Date.valueOf(booking.getCheckInDate()));
+					statement.setDate(3, Date.valueOf(booking.getCheckOutDate()));
+					statement.setInt(4, booking.getNumOfPassengers());
+					statement.setInt(5, booking.getNumOfMiles());
+					statement.setString(6, booking.getBookingConfirmationCode());
+					statement.setLong(7, booking.getUser().getId());
+					statement.setLong(8, booking.getVehicle().getId());
+					statement.setTimestamp(9, createdAt);
+				});
+	}
+
+	@Override
+	public void close() {
+		context.close();
+	}
+}
@@ -0,0 +1,64 @@
+package com.booking.vehicleBooking.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.booking.vehicleBooking.entity.User;
+import com.booking.vehicleBooking.utils.JWTUtils;
+
+import io.jsonwebtoken.Claims;
+
+//What JWTAuthFilter does per request. JWTUtils caches verified claims for up to 10k tokens,
+//so a pool of one token measures the cache hit and a pool far above that measures full
+//signature verification.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+	@Param({"1", "100000"})
+	public int tokenPool;
+
+	private JWTUtils jwtUtils;
+	private User[] users;
+	private String[] tokens;
+	private int cursor;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		jwtUtils = new JWTUtils();
+		users = new SyntheticData(42).users(tokenPool).toArray(User[]::new);
+		tokens = new String[tokenPool];
+		for (int i = 0; i < tokenPool; i++) {
+			tokens[i] = jwtUtils.generateToken(users[i]);
+		}
+	}
+
+	@Benchmark
+	public String generateToken() {
+		return jwtUtils.generateToken(users[0]);
+	}
+
+	@Benchmark
+	public boolean parseAndValidate() {
+		int i = cursor;
+		cursor = i + 1 == tokenPool ? 0 : i + 1;
+		Claims claims = jwtUtils.extractAllClaims(tokens[i]);
+		return jwtUtils.isValidToken(claims, users[i]);
+	}
+}
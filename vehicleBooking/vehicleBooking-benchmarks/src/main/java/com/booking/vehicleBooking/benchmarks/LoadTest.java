@@ -0,0 +1,246 @@
+package com.booking.vehicleBooking.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+//Closed-loop HTTP load generator: keeps a fixed number of requests in flight against a running
+//instance and reports throughput and latency percentiles per operation. Start the app with
+//-Ploadtest (in-memory H2, 1000 seeded vehicles), with or without the virtual profile, then run
+//
+//  java -cp target/benchmarks.jar com.booking.vehicleBooking.benchmarks.LoadTest \
+//       --url http://localhost:4040 --concurrency 5000 --warmup 15 --duration 60
+public class LoadTest {
+
+	private static final ObjectMapper objectMapper = new ObjectMapper();
+	private static final String[] VEHICLE_TYPES = {"Sedan", "SUV", "Truck", "Van"};
+
+	private final String baseUrl;
+	private final int concurrency;
+	private final int vehicleCount;
+	private final HttpClient httpClient;
+
+	private String token;
+	private long userId;
+
+	private volatile Map<String, OperationStats> stats = new ConcurrentHashMap<>();
+
+	public LoadTest(String baseUrl, int concurrency, int vehicleCount) {
+		this.baseUrl = baseUrl;
+		this.concurrency = concurrency;
+		this.vehicleCount = vehicleCount;
+		this.httpClient = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_1_1)
+				.connectTimeout(Duration.ofSeconds(10))
+				.build();
+	}
+
+	public static void main(String[] args) throws Exception {
+		Map<String, String> options = new HashMap<>();
+		for (int i = 0; i + 1 < args.length; i += 2) {
+			options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+		}
+		LoadTest loadTest = new LoadTest(
+				options.getOrDefault("url", "http://localhost:4040"),
+				Integer.parseInt(options.getOrDefault("concurrency", "5000")),
+				Integer.parseInt(options.getOrDefault("vehicles", "1000")));
+
+		loadTest.signUp();
+		System.out.printf("warming up for %ss with %d requests in flight%n", options.getOrDefault("warmup", "15"), loadTest.concurrency);
+		loadTest.run(Integer.parseInt(options.getOrDefault("warmup", "15")));
+		System.out.printf("measuring for %ss%n", options.getOrDefault("duration", "60"));
+		long elapsedNanos = loadTest.run(Integer.parseInt(options.getOrDefault("duration", "60")));
+		loadTest.report(elapsedNanos);
+	}
+
+	//registers a throwaway user, bookings need a token and a user id
+	private void signUp() throws Exception {
+		String email = "loadtest-" + System.nanoTime() + "@example.com";
+		String password = "loadtest";
+		JsonNode registered = postJson("/auth/register",
+				"{\"email\":\"" + email + "\",\"name\":\"Load Test\",\"phoneNumber\":\"5550000000\",\"password\":\"" + password + "\"}");
+		userId = registered.path("user").path("id").asLong();
+		JsonNode login = postJson("/auth/login", "{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}");
+		token = login.path("token").asText();
+		if (userId == 0 || token.isEmpty()) {
+			throw new IllegalStateException("Could not sign up the load test user: " + registered + " / " + login);
+		}
+	}
+
+	private JsonNode postJson(String path, String body) throws Exception {
+		HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(body))
+				.build();
+		return objectMapper.readTree(httpClient.send(request, HttpResponse.BodyHandlers.ofString()).body());
+	}
+
+	//keeps `concurrency` requests outstanding for the given time, returns the elapsed nanos
+	private long run(int seconds) throws InterruptedException {
+		stats = new ConcurrentHashMap<>();
+		Semaphore inFlight = new Semaphore(concurrency);
+		long start = System.nanoTime();
+		long end = start + TimeUnit.SECONDS.toNanos(seconds);
+
+		while (System.nanoTime() < end) {
+			if (!inFlight.tryAcquire(100, TimeUnit.MILLISECONDS)) {
+				continue;
+			}
+			Operation operation = nextOperation();
+			OperationStats operationStats = stats.computeIfAbsent(operation.name, OperationStats::new);
+			long sent = System.nanoTime();
+			httpClient.sendAsync(operation.request, HttpResponse.BodyHandlers.discarding())
+					.whenComplete((response, error) -> {
+						operationStats.record(System.nanoTime() - sent, response == null ? -1 : response.statusCode());
+						inFlight.release();
+					});
+		}
+		inFlight.acquire(concurrency);
+		return System.nanoTime() - start;
+	}
+
+	//read-heavy mix: 50% search, 25% vehicle by id, 15% types, 10% bookings
+	private Operation nextOperation() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		int roll = random.nextInt(100);
+		LocalDate checkIn = LocalDate.now().plusDays(1 + random.nextInt(365));
+		LocalDate checkOut = checkIn.plusDays(1 + random.nextInt(7));
+		long vehicleId = 1 + random.nextInt(vehicleCount);
+
+		if (roll < 50) {
+			return new Operation("search", get("/vehicles/available-vehicles-by-date-and-type?checkInDate=" + checkIn
+					+ "&checkOutDate=" + checkOut + "&vehicleType=" + VEHICLE_TYPES[random.nextInt(VEHICLE_TYPES.length)]));
+		}
+		if (roll < 75) {
+			return new Operation("vehicle-by-id", get("/vehicles/vehicle-by-id/" + vehicleId));
+		}
+		if (roll < 90) {
+			return new Operation("types", get("/vehicles/types"));
+		}
+		String booking = "{\"checkInDate\":\"" + checkIn + "\",\"checkOutDate\":\"" + checkOut
+				+ "\",\"numOfPassengers\":2,\"numOfMiles\":100}";
+		return new Operation("book", HttpRequest.newBuilder(URI.create(baseUrl + "/bookings/book-vehicle/" + vehicleId + "/" + userId))
+				.header("Authorization", "Bearer " + token)
+				.header("Content-Type", "application/json")
+				.timeout(Duration.ofSeconds(60))
+				.POST(HttpRequest.BodyPublishers.ofString(booking))
+				.build());
+	}
+
+	private HttpRequest get(String path) {
+		return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(60)).GET().build();
+	}
+
+	private void report(long elapsedNanos) {
+		double seconds = elapsedNanos / 1e9;
+		OperationStats total = new OperationStats("total");
+		System.out.printf("%-14s %10s %10s %9s %9s %9s %9s %9s %9s %9s%n",
+				"operation", "requests", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "errors", "429s");
+		for (OperationStats operationStats : stats.values()) {
+			operationStats.print(seconds);
+			total.add(operationStats);
+		}
+		total.print(seconds);
+	}
+
+	private record Operation(String name, HttpRequest request) {}
+
+	//Log-linear latency histogram in microseconds: 32 sub-buckets per power of two, about 3% resolution
+	private static class OperationStats {
+
+		private static final int SUB_BUCKETS = 32;
+		private static final int BUCKETS = 64 * SUB_BUCKETS;
+
+		private final String name;
+		private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+		private final LongAdder requests = new LongAdder();
+		//server errors, timeouts and refused connections; 4xx such as a booking conflict is a valid answer
+		private final LongAdder errors = new LongAdder();
+		//rate-limited requests are left out of the throughput and latency figures, a 429 is answered
+		//without doing the work; start the app with the loadtest profile, which turns the limiter off
+		private final LongAdder throttled = new LongAdder();
+		private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+
+		OperationStats(String name) {
+			this.name = name;
+		}
+
+		void record(long nanos, int statusCode) {
+			if (statusCode == 429) {
+				throttled.increment();
+				return;
+			}
+			long micros = Math.max(1, nanos / 1_000);
+			histogram.incrementAndGet(bucket(micros));
+			requests.increment();
+			if (statusCode < 0 || statusCode >= 500) {
+				errors.increment();
+			}
+			maxMicros.accumulate(micros);
+		}
+
+		void add(OperationStats other) {
+			for (int i = 0; i < BUCKETS; i++) {
+				histogram.addAndGet(i, other.histogram.get(i));
+			}
+			requests.add(other.requests.sum());
+			errors.add(other.errors.sum());
+			throttled.add(other.throttled.sum());
+			maxMicros.accumulate(other.maxMicros.get());
+		}
+
+		private static int bucket(long micros) {
+			int exponent = 63 - Long.numberOfLeadingZeros(micros);
+			if (exponent < 5) {
+				return (int) micros;
+			}
+			int subBucket = (int) (micros >>> (exponent - 5)) & (SUB_BUCKETS - 1);
+			return (exponent - 4) * SUB_BUCKETS + subBucket;
+		}
+
+		//upper bound of a bucket, the inverse of bucket()
+		private static long bucketMicros(int bucket) {
+			if (bucket < SUB_BUCKETS) {
+				return bucket;
+			}
+			int exponent = bucket / SUB_BUCKETS + 4;
+			long subBucket = bucket % SUB_BUCKETS;
+			return ((SUB_BUCKETS + subBucket + 1) << (exponent - 5)) - 1;
+		}
+
+		private double percentileMillis(double percentile) {
+			long count = requests.sum();
+			long rank = (long) Math.ceil(count * percentile);
+			long seen = 0;
+			for (int i = 0; i < BUCKETS; i++) {
+				seen += histogram.get(i);
+				if (seen >= rank && seen > 0) {
+					return Math.min(bucketMicros(i), maxMicros.get()) / 1_000.0;
+				}
+			}
+			return maxMicros.get() / 1_000.0;
+		}
+
+		void print(double seconds) {
+			long count = requests.sum();
+			System.out.printf("%-14s %10d %10.0f %9.2f %9.2f %9.2f %9.2f %9.2f %9d %9d%n", name, count, count / seconds,
+					percentileMillis(0.50), percentileMillis(0.90), percentileMillis(0.99), percentileMillis(0.999),
+					maxMicros.get() / 1_000.0, errors.sum(), throttled.sum());
+		}
+	}
+}
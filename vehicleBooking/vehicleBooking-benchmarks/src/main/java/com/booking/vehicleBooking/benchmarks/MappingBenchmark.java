@@ -0,0 +1,68 @@
+package com.booking.vehicleBooking.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.booking.vehicleBooking.dto.BookingDTO;
+import com.booking.vehicleBooking.dto.UserDTO;
+import com.booking.vehicleBooking.dto.VehicleDTO;
+import com.booking.vehicleBooking.entity.Booking;
+import com.booking.vehicleBooking.entity.User;
+import com.booking.vehicleBooking.entity.Vehicle;
+import com.booking.vehicleBooking.utils.Utils;
+
+//Entity to DTO mapping done by every list endpoint
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappingBenchmark {
+
+	@Param({"50", "5000"})
+	public int listSize;
+
+	@Param({"5"})
+	public int bookingsPerVehicle;
+
+	private List<Vehicle> vehicles;
+	private List<User> users;
+	private List<Booking> bookings;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		SyntheticData data = new SyntheticData(42);
+		vehicles = data.vehicles(listSize);
+		users = data.users(listSize);
+		bookings = data.bookings(vehicles, users, bookingsPerVehicle).subList(0, listSize);
+	}
+
+	@Benchmark
+	public List<VehicleDTO> vehicleList() {
+		return Utils.mapVehicleListEntityToVehicleListDTO(vehicles);
+	}
+
+	@Benchmark
+	public List<UserDTO> userList() {
+		return Utils.mapUserListEntityToUserListDTO(users);
+	}
+
+	@Benchmark
+	public List<BookingDTO> bookingList() {
+		return Utils.mapBookingListEntityToBookingListDTO(bookings);
+	}
+}
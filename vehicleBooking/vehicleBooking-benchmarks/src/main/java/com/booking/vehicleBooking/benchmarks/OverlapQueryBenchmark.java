@@ -0,0 +1,88 @@
+package com.booking.vehicleBooking.benchmarks;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.booking.vehicleBooking.entity.Booking;
+import com.booking.vehicleBooking.entity.User;
+import com.booking.vehicleBooking.entity.Vehicle;
+import com.booking.vehicleBooking.repo.BookingRepository;
+
+//BookingRepository.existsOverlappingBooking, the check saveBooking runs under the vehicle lock,
+//on H2 as a vehicle's booking history grows. saveBooking only takes dates from today on, so the
+//history lies behind the queries: each one falls within a few weeks of its vehicle's last check out.
+//With idx_bookings_vehicle_check_out the cost should stay flat rather than grow with the history.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, time = 3)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OverlapQueryBenchmark {
+
+	@Param({"10", "1000", "10000"})
+	public int bookingsPerVehicle;
+
+	private static final int VEHICLE_COUNT = 20;
+	private static final int QUERY_COUNT = 1024;
+
+	private H2Fixture fixture;
+	private BookingRepository bookingRepository;
+
+	private Long[] queryVehicleIds;
+	private LocalDate[] queryCheckIns;
+	private LocalDate[] queryCheckOuts;
+	private int cursor;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		SyntheticData data = new SyntheticData(42);
+		List<Vehicle> vehicles = data.vehicles(VEHICLE_COUNT);
+		List<User> users = data.users(100);
+		List<Booking> bookings = data.bookings(vehicles, users, bookingsPerVehicle);
+		fixture = H2Fixture.start(vehicles, users, bookings);
+		bookingRepository = fixture.bean(BookingRepository.class);
+
+		SyntheticData queries = new SyntheticData(7);
+		queryVehicleIds = new Long[QUERY_COUNT];
+		queryCheckIns = new LocalDate[QUERY_COUNT];
+		queryCheckOuts = new LocalDate[QUERY_COUNT];
+		for (int i = 0; i < QUERY_COUNT; i++) {
+			Vehicle vehicle = vehicles.get((i * 7919) % vehicles.size());
+			//from three weeks before the last check out to three weeks after it, so about half overlap
+			LocalDate lastCheckOut = vehicle.getBookings().get(vehicle.getBookings().size() - 1).getCheckOutDate();
+			LocalDate[] range = queries.dateRange(42, 7);
+			long shift = ChronoUnit.DAYS.between(SyntheticData.START_DATE, lastCheckOut.minusDays(21));
+			queryVehicleIds[i] = vehicle.getId();
+			queryCheckIns[i] = range[0].plusDays(shift);
+			queryCheckOuts[i] = range[1].plusDays(shift);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		fixture.close();
+	}
+
+	@Benchmark
+	public boolean existsOverlappingBooking() {
+		int i = cursor = (cursor + 1) & (QUERY_COUNT - 1);
+		return bookingRepository.existsOverlappingBooking(queryVehicleIds[i], queryCheckIns[i], queryCheckOuts[i]);
+	}
+}
@@ -0,0 +1,75 @@
+package com.booking.vehicleBooking.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.booking.vehicleBooking.dto.Response;
+import com.booking.vehicleBooking.entity.Booking;
+import com.booking.vehicleBooking.entity.Vehicle;
+import com.booking.vehicleBooking.utils.Utils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+//Jackson serialization of the Response bodies returned by /vehicles/all and /bookings/all,
+//with the ObjectMapper set up the way Spring Boot configures it for MVC
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseSerializationBenchmark {
+
+	@Param({"50", "5000"})
+	public int listSize;
+
+	private ObjectMapper objectMapper;
+	private Response vehicleListResponse;
+	private Response bookingListResponse;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		objectMapper = new ObjectMapper()
+				.registerModule(new JavaTimeModule())
+				.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+		SyntheticData data = new SyntheticData(42);
+		List<Vehicle> vehicles = data.vehicles(listSize);
+		List<Booking> bookings = data.bookings(vehicles, data.users(100), 1);
+
+		vehicleListResponse = new Response();
+		vehicleListResponse.setStatusCode(200);
+		vehicleListResponse.setMessage("Success");
+		vehicleListResponse.setVehicleList(Utils.mapVehicleListEntityToVehicleListDTO(vehicles));
+
+		bookingListResponse = new Response();
+		bookingListResponse.setStatusCode(200);
+		bookingListResponse.setMessage("Success");
+		bookingListResponse.setBookingList(Utils.mapBookingListEntityToBookingListDTO(bookings));
+	}
+
+	@Benchmark
+	public byte[] vehicleList() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(vehicleListResponse);
+	}
+
+	@Benchmark
+	public byte[] bookingList() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(bookingListResponse);
+	}
+}
@@ -0,0 +1,97 @@
+package com.booking.vehicleBooking.benchmarks;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.booking.vehicleBooking.entity.Booking;
+import com.booking.vehicleBooking.entity.User;
+import com.booking.vehicleBooking.entity.Vehicle;
+import com.booking.vehicleBooking.repo.VehicleRepository;
+import com.booking.vehicleBooking.service.impl.VehicleAvailabilityIndex;
+
+//The date/type search answered by VehicleAvailabilityIndex against the JPQL query it replaced,
+//VehicleRepository.findAvailableVehicleByDatesAndTypes, run on H2. The query returns entities
+//and the index returns ids, which is the work each one does for the search endpoint.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchQueryBenchmark {
+
+	@Param({"100", "2000"})
+	public int vehicleCount;
+
+	@Param({"10", "200"})
+	public int bookingsPerVehicle;
+
+	private static final int QUERY_COUNT = 1024;
+
+	private H2Fixture fixture;
+	private VehicleRepository vehicleRepository;
+	private VehicleAvailabilityIndex index;
+
+	private String[] queryTypes;
+	private LocalDate[] queryCheckIns;
+	private LocalDate[] queryCheckOuts;
+	private int cursor;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		SyntheticData data = new SyntheticData(42);
+		List<Vehicle> vehicles = data.vehicles(vehicleCount);
+		List<User> users = data.users(100);
+		List<Booking> bookings = data.bookings(vehicles, users, bookingsPerVehicle);
+		fixture = H2Fixture.start(vehicles, users, bookings);
+		vehicleRepository = fixture.bean(VehicleRepository.class);
+		index = fixture.bean(VehicleAvailabilityIndex.class);
+
+		SyntheticData queries = new SyntheticData(7);
+		queryTypes = new String[QUERY_COUNT];
+		queryCheckIns = new LocalDate[QUERY_COUNT];
+		queryCheckOuts = new LocalDate[QUERY_COUNT];
+		for (int i = 0; i < QUERY_COUNT; i++) {
+			LocalDate[] range = queries.dateRange(bookingsPerVehicle * 5, 7);
+			queryTypes[i] = SyntheticData.VEHICLE_TYPES[i % SyntheticData.VEHICLE_TYPES.length];
+			queryCheckIns[i] = range[0];
+			queryCheckOuts[i] = range[1];
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		fixture.close();
+	}
+
+	private int next() {
+		return cursor = (cursor + 1) & (QUERY_COUNT - 1);
+	}
+
+	@Benchmark
+	public List<Vehicle> jpqlFindAvailableByDatesAndTypes() {
+		int i = next();
+		return vehicleRepository.findAvailableVehicleByDatesAndTypes(queryCheckIns[i], queryCheckOuts[i], queryTypes[i]);
+	}
+
+	@Benchmark
+	public List<Long> indexFindAvailableByType() {
+		int i = next();
+		return index.findAvailableVehicleIds(queryCheckIns[i], queryCheckOuts[i], queryTypes[i]);
+	}
+}
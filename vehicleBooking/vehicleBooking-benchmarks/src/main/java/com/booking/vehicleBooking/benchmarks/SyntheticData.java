@@ -0,0 +1,90 @@
+package com.booking.vehicleBooking.benchmarks;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.booking.vehicleBooking.entity.Booking;
+import com.booking.vehicleBooking.entity.User;
+import com.booking.vehicleBooking.entity.Vehicle;
+
+//Deterministic entity graphs for the benchmarks. The same seed always produces the same data,
+//so runs on different commits measure the same work.
+public class SyntheticData {
+
+	public static final String[] VEHICLE_TYPES = {"Sedan", "SUV", "Truck", "Van", "Convertible", "Coupe", "Minivan", "Pickup"};
+	public static final LocalDate START_DATE = LocalDate.of(2025, 1, 1);
+
+	private final Random random;
+	private long nextBookingId = 1;
+
+	public SyntheticData(long seed) {
+		this.random = new Random(seed);
+	}
+
+	public List<Vehicle> vehicles(int count) {
+		List<Vehicle> vehicles = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			Vehicle vehicle = new Vehicle();
+			vehicle.setId((long) i + 1);
+			vehicle.setVehicleType(VEHICLE_TYPES[i % VEHICLE_TYPES.length]);
+			vehicle.setVehiclePrice(BigDecimal.valueOf(2_000 + random.nextInt(18_000), 2));
+			vehicle.setVehiclePhotoUrl("https://vehicle-booking-images.s3.amazonaws.com/" + Long.toHexString(random.nextLong()) + ".jpg");
+			vehicle.setVehicleDescription("Synthetic vehicle " + (i + 1));
+			vehicles.add(vehicle);
+		}
+		return vehicles;
+	}
+
+	public List<User> users(int count) {
+		List<User> users = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			User user = new User();
+			user.setId((long) i + 1);
+			user.setEmail("user" + (i + 1) + "@example.com");
+			user.setName("User " + (i + 1));
+			user.setPhoneNumber(String.format("555%07d", i));
+			user.setPassword("{noop}password");
+			user.setRole("USER");
+			users.add(user);
+		}
+		return users;
+	}
+
+	//Back-to-back bookings with random gaps, spread over the given users. Bookings are linked to
+	//both sides of the relationship so the "PlusBookings" mappers have something to walk.
+	public List<Booking> bookings(List<Vehicle> vehicles, List<User> users, int bookingsPerVehicle) {
+		List<Booking> bookings = new ArrayList<>(vehicles.size() * bookingsPerVehicle);
+		for (Vehicle vehicle : vehicles) {
+			LocalDate checkIn = START_DATE.plusDays(random.nextInt(7));
+			for (int i = 0; i < bookingsPerVehicle; i++) {
+				LocalDate checkOut = checkIn.plusDays(1 + random.nextInt(6));
+				User user = users.get(random.nextInt(users.size()));
+
+				Booking booking = new Booking();
+				booking.setId(nextBookingId++);
+				booking.setCheckInDate(checkIn);
+				booking.setCheckOutDate(checkOut);
+				booking.setNumOfPassengers(1 + random.nextInt(5));
+				booking.setNumOfMiles(random.nextInt(1_000));
+				booking.setBookingConfirmationCode(Long.toString(random.nextLong() & Long.MAX_VALUE, 36).toUpperCase());
+				booking.setVehicle(vehicle);
+				booking.setUser(user);
+				vehicle.getBookings().add(booking);
+				user.getBookings().add(booking);
+				bookings.add(booking);
+
+				checkIn = checkOut.plusDays(random.nextInt(4));
+			}
+		}
+		return bookings;
+	}
+
+	//Random search window inside the booked horizon
+	public LocalDate[] dateRange(int horizonDays, int maxLengthDays) {
+		LocalDate checkIn = START_DATE.plusDays(random.nextInt(Math.max(1, horizonDays)));
+		return new LocalDate[] {checkIn, checkIn.plusDays(1 + random.nextInt(maxLengthDays))};
+	}
+}
@@ -0,0 +1,42 @@
+package com.booking.vehicleBooking.controller;
+
+import java.time.LocalDate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.booking.vehicleBooking.dto.Response;
+import com.booking.vehicleBooking.service.interfac.IAnalyticsService;
+
+@RestController
+@RequestMapping("/analytics")
+public class AnalyticsController {
+	
+	@Autowired
+	private IAnalyticsService analyticsService;
+	
+	//Utilization %, revenue and average lead time per vehicle type, bucketed by day, week or month over [from, to)
+	@GetMapping("/utilization")
+	@PreAuthorize("hasAuthority('ADMIN')")
+	public ResponseEntity<Response> getUtilization(
+			@RequestParam(required = false)@DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam(required = false)@DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+			@RequestParam(defaultValue = "day") String bucket){
+		
+		if(from == null || to == null) {
+			Response response = new Response();
+			response.setStatusCode(400);
+			response.setMessage("Provide values for all fields (from, to)");
+			return ResponseEntity.status(response.getStatusCode()).body(response);
+		}
+		
+		Response response = analyticsService.getUtilization(from, to, bucket);
+		return ResponseEntity.status(response.getStatusCode()).body(response);
+	}
+}
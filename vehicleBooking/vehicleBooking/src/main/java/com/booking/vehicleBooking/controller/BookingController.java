@@ -1,6 +1,9 @@
 package com.booking.vehicleBooking.controller;
 
+import java.util.List;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -8,12 +11,20 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.booking.vehicleBooking.dto.BookingRequest;
 import com.booking.vehicleBooking.dto.Response;
 import com.booking.vehicleBooking.entity.Booking;
+import com.booking.vehicleBooking.service.impl.IdempotencyService;
 import com.booking.vehicleBooking.service.interfac.IBookingService;
+import com.booking.vehicleBooking.service.interfac.IIdempotencyService;
+import com.booking.vehicleBooking.service.interfac.IIdempotencyService.IdempotentResponse;
+import com.booking.vehicleBooking.utils.Utils;
 
 @RestController
 @RequestMapping("/bookings")
@@ -22,27 +33,72 @@ public class BookingController {
 	@Autowired
 	private IBookingService bookingService;
 	
+	@Autowired
+	private IIdempotencyService idempotencyService;
+	
+	//With an Idempotency-Key header a retried request gets the first response back instead of booking again
 	@PostMapping("/book-vehicle/{vehicleId}/{userId}")
 	@PreAuthorize("hasAuthority('ADMIN') or hasAuthority('USER')")
 	public ResponseEntity<Response> saveBookings(
 			@PathVariable Long vehicleId, 
 			@PathVariable Long userId, 
+			@RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
 			@RequestBody Booking bookingRequest){
 		
-		Response response = bookingService.saveBooking(vehicleId, userId, bookingRequest);
+		if (idempotencyKey == null) {
+			Response response = bookingService.saveBooking(vehicleId, userId, bookingRequest);
+			return ResponseEntity.status(response.getStatusCode()).body(response);
+		}
+		if (idempotencyKey.isBlank() || idempotencyKey.length() > IdempotencyService.MAX_KEY_LENGTH) {
+			Response response = new Response();
+			response.setStatusCode(400);
+			response.setMessage("Idempotency-Key must be 1 to " + IdempotencyService.MAX_KEY_LENGTH + " characters");
+			return ResponseEntity.status(response.getStatusCode()).body(response);
+		}
+		
+		String requestFingerprint = IdempotencyService.fingerprint(vehicleId, userId, bookingRequest.getCheckInDate(),
+				bookingRequest.getCheckOutDate(), bookingRequest.getNumOfPassengers(), bookingRequest.getNumOfMiles());
+		IdempotentResponse result = idempotencyService.execute("book-vehicle:" + userId + ":" + idempotencyKey, requestFingerprint,
+				() -> bookingService.saveBooking(vehicleId, userId, bookingRequest));
+		return ResponseEntity.status(result.response().getStatusCode())
+				.header("Idempotent-Replayed", String.valueOf(result.replayed()))
+				.body(result.response());
+	}
+	
+	
+	//Books several vehicles for one user at once: every booking is made, or none is
+	@PostMapping("/book-vehicles/{userId}")
+	@PreAuthorize("hasAuthority('ADMIN') or hasAuthority('USER')")
+	public ResponseEntity<Response> saveBatchBookings(
+			@PathVariable Long userId,
+			@RequestBody List<BookingRequest> bookingRequests){
+		
+		Response response = bookingService.saveBookings(userId, bookingRequests);
 		return ResponseEntity.status(response.getStatusCode()).body(response);
-
 	}
 	
 	
 	@GetMapping("/all")
 	@PreAuthorize("hasAuthority('ADMIN')")
-	public ResponseEntity<Response> getAllBookings(){
+	public ResponseEntity<Response> getAllBookings(
+			@RequestParam(required = false) Long lastSeenId,
+			@RequestParam(required = false) Integer size){
 
-		Response response = bookingService.getAllBookings();
+		//without paging params the full list is returned as before
+		Response response = (lastSeenId == null && size == null)
+				? bookingService.getAllBookings()
+				: bookingService.getAllBookings(lastSeenId, size == null ? Utils.DEFAULT_PAGE_SIZE : size);
 		return ResponseEntity.status(response.getStatusCode()).body(response);
 	}
 	
+	@GetMapping(value = "/all", params = "format=ndjson")
+	@PreAuthorize("hasAuthority('ADMIN')")
+	public ResponseEntity<StreamingResponseBody> streamAllBookings(){
+		
+		StreamingResponseBody body = outputStream -> bookingService.streamAllBookings(outputStream);
+		return ResponseEntity.ok().contentType(MediaType.parseMediaType(Utils.NDJSON_MEDIA_TYPE)).body(body);
+	}
+	
 	
 	@GetMapping("/get-by-confirmation-code/{confirmationCode}")
 	public ResponseEntity<Response> getBookingByConfirmationCode(@PathVariable String confirmationCode){
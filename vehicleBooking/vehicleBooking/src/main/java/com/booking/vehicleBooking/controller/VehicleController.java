@@ -1,11 +1,19 @@
 package com.booking.vehicleBooking.controller;
 
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.net.URI;
+import java.nio.channels.Channels;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -13,14 +21,22 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.booking.vehicleBooking.dto.Response;
+import com.booking.vehicleBooking.service.impl.VehicleCatalogVersion;
 import com.booking.vehicleBooking.service.interfac.IBookingService;
+import com.booking.vehicleBooking.service.interfac.IImageServingService;
+import com.booking.vehicleBooking.service.interfac.IImageStorageService;
+import com.booking.vehicleBooking.service.interfac.IVehicleImportService;
 import com.booking.vehicleBooking.service.interfac.IVehicleService;
+import com.booking.vehicleBooking.utils.Utils;
 
 @RestController
 @RequestMapping("/vehicles")
@@ -32,6 +48,19 @@ public class VehicleController {
 	@Autowired
 	private IBookingService iBookingService;
 	
+	@Autowired
+	private IImageStorageService imageStorageService;
+	
+	//only present when photos are kept by this application (image.storage=local)
+	@Autowired(required = false)
+	private IImageServingService imageServingService;
+	
+	@Autowired
+	private VehicleCatalogVersion vehicleCatalogVersion;
+	
+	@Autowired
+	private IVehicleImportService vehicleImportService;
+	
 	@PostMapping("/add")
 	@PreAuthorize("hasAuthority('ADMIN')") //only admins have access to this
 	public ResponseEntity<Response> getNewVehicle(
@@ -55,14 +84,50 @@ public class VehicleController {
 	}
 	
 	
+	//Imports a fleet from CSV (header row naming vehicleType, vehiclePrice, vehiclePhotoUrl, vehicleDescription)
+	//or NDJSON (one object per line with the same fields). vehiclePhotoUrl is a URL or an image storage key.
+	@PostMapping(value = "/bulk", consumes = {"text/csv", Utils.NDJSON_MEDIA_TYPE})
+	@PreAuthorize("hasAuthority('ADMIN')") //only admins have access to this
+	public ResponseEntity<Response> bulkImportVehicles(
+			@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+			InputStream body){
+		
+		Response response = vehicleImportService.importVehicles(body, contentType);
+		return ResponseEntity.status(response.getStatusCode()).body(response);
+	}
+	
+	//Pollers send back the ETag and get a 304 with no body until the catalog changes. No Last-Modified:
+	//it only has whole seconds, so two writes in one second would look unchanged to If-Modified-Since
 	@GetMapping("/all")
-	public ResponseEntity<Response> getAllVehicles(){
-		Response response = vehicleService.getAllVehicles();
+	public ResponseEntity<Response> getAllVehicles(
+			@RequestParam(required = false) Long lastSeenId,
+			@RequestParam(required = false) Integer size,
+			WebRequest webRequest){
+		
+		if (webRequest.checkNotModified(VehicleCatalogVersion.etag(vehicleCatalogVersion.current()))) {
+			return null;
+		}
+		
+		//without paging params the full list is returned as before
+		Response response = (lastSeenId == null && size == null)
+				? vehicleService.getAllVehicles()
+				: vehicleService.getAllVehicles(lastSeenId, size == null ? Utils.DEFAULT_PAGE_SIZE : size);
 		return ResponseEntity.status(response.getStatusCode()).body(response);
 	}
 	
+	@GetMapping(value = "/all", params = "format=ndjson")
+	public ResponseEntity<StreamingResponseBody> streamAllVehicles(){
+		
+		StreamingResponseBody body = outputStream -> vehicleService.streamAllVehicles(outputStream);
+		return ResponseEntity.ok().contentType(MediaType.parseMediaType(Utils.NDJSON_MEDIA_TYPE)).body(body);
+	}
+	
 	@GetMapping("/types")
-	public List<String> getVehicleTypes(){
+	public List<String> getVehicleTypes(WebRequest webRequest){
+		
+		if (webRequest.checkNotModified(VehicleCatalogVersion.etag(vehicleCatalogVersion.current()))) {
+			return null;
+		}
 		return vehicleService.getAllVehicleTypes();
 	}
 	
@@ -73,6 +138,22 @@ public class VehicleController {
 		return ResponseEntity.status(response.getStatusCode()).body(response);
 	}
 	
+	//Streams a photo held by the local image storage straight from disk, other storages are redirected to
+	@GetMapping("/photo/{photoId}")
+	public ResponseEntity<StreamingResponseBody> getVehiclePhoto(@PathVariable String photoId){
+		
+		if (imageServingService == null) {
+			return ResponseEntity.status(HttpStatus.FOUND).location(URI.create(imageStorageService.imageUrl(photoId))).build();
+		}
+		long size = imageServingService.imageSize(photoId);
+		if (size < 0) {
+			return ResponseEntity.notFound().build();
+		}
+		MediaType mediaType = MediaTypeFactory.getMediaType(photoId).orElse(MediaType.APPLICATION_OCTET_STREAM);
+		StreamingResponseBody body = outputStream -> imageServingService.transferImage(photoId, Channels.newChannel(outputStream));
+		return ResponseEntity.ok().contentType(mediaType).contentLength(size).body(body);
+	}
+	
 	@GetMapping("/all-available-vehicles")
 	public ResponseEntity<Response> getAvailableVehicles(){
 
@@ -85,10 +166,15 @@ public class VehicleController {
 	public ResponseEntity<Response> getAvailableVehiclesByDateAndType(
 			@RequestParam( required= false)@DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkInDate,
 			@RequestParam(required= false)@DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkOutDate,
-			@RequestParam( required= false) String vehicleType
+			@RequestParam( required= false) String vehicleType,
+			@RequestParam(required = false) String sort,
+			@RequestParam(required = false) Integer offset,
+			@RequestParam(required = false) Integer size
 			){
 		
-		if(checkInDate == null || vehicleType == null || vehicleType.isBlank() || checkOutDate == null 
+		//without paging params this is the original search: a type is required and every match is returned
+		boolean paged = sort != null || offset != null || size != null;
+		if(checkInDate == null || checkOutDate == null || (!paged && (vehicleType == null || vehicleType.isBlank()))
 				) {
 			Response response = new Response();
 			response.setStatusCode(400);
@@ -96,8 +182,55 @@ public class VehicleController {
 			return ResponseEntity.status(response.getStatusCode()).body(response);
 
 		}
+		if(ChronoUnit.DAYS.between(checkInDate, checkOutDate) > Utils.MAX_DATE_RANGE_DAYS) {
+			Response response = new Response();
+			response.setStatusCode(400);
+			response.setMessage("The date range must not be longer than " + Utils.MAX_DATE_RANGE_DAYS + " days");
+			return ResponseEntity.status(response.getStatusCode()).body(response);
+		}
+		if(paged && offset != null && (offset < 0 || offset > Utils.MAX_SEARCH_OFFSET)) {
+			Response response = new Response();
+			response.setStatusCode(400);
+			response.setMessage("offset must be between 0 and " + Utils.MAX_SEARCH_OFFSET);
+			return ResponseEntity.status(response.getStatusCode()).body(response);
+		}
+		
+		Response response = paged
+				? vehicleService.getAvailableVehiclesByDateAndTypes(checkInDate, checkOutDate, vehicleType, sort,
+						offset == null ? 0 : offset, size == null ? Utils.DEFAULT_PAGE_SIZE : size)
+				: vehicleService.getAvailableVehiclesByDateAndTypes(checkInDate, checkOutDate, vehicleType);
+		return ResponseEntity.status(response.getStatusCode()).body(response);
+	}
+	
+	
+	@GetMapping("/quote")
+	public ResponseEntity<Response> getVehicleQuote(
+			@RequestParam(required= false) Long vehicleId,
+			@RequestParam(required= false)@DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkInDate,
+			@RequestParam(required= false)@DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkOutDate,
+			@RequestParam(defaultValue = "0") int numOfMiles
+			){
+		
+		if(vehicleId == null || checkInDate == null || checkOutDate == null) {
+			Response response = new Response();
+			response.setStatusCode(400);
+			response.setMessage("Provide values for all fields (vehicle id, check in dates, check out dates)");
+			return ResponseEntity.status(response.getStatusCode()).body(response);
+		}
+		if(!checkOutDate.isAfter(checkInDate) || numOfMiles < 0) {
+			Response response = new Response();
+			response.setStatusCode(400);
+			response.setMessage("Check out date must be after check in date and miles must not be negative");
+			return ResponseEntity.status(response.getStatusCode()).body(response);
+		}
+		if(ChronoUnit.DAYS.between(checkInDate, checkOutDate) > Utils.MAX_DATE_RANGE_DAYS) {
+			Response response = new Response();
+			response.setStatusCode(400);
+			response.setMessage("The date range must not be longer than " + Utils.MAX_DATE_RANGE_DAYS + " days");
+			return ResponseEntity.status(response.getStatusCode()).body(response);
+		}
 		
-		Response response = vehicleService.getAvailableVehiclesByDateAndTypes(checkInDate, checkOutDate, vehicleType);
+		Response response = vehicleService.getVehicleQuote(vehicleId, checkInDate, checkOutDate, numOfMiles);
 		return ResponseEntity.status(response.getStatusCode()).body(response);
 	}
 	
@@ -0,0 +1,17 @@
+package com.booking.vehicleBooking.dto;
+
+import java.time.LocalDate;
+
+import lombok.Data;
+
+//One entry of a batch booking: the vehicle and the same fields a single booking takes
+@Data
+public class BookingRequest {
+	
+	private Long vehicleId;
+	private LocalDate checkInDate;
+	private LocalDate checkOutDate;
+	private int numOfPassengers;
+	private int numOfMiles;
+	
+}
@@ -0,0 +1,29 @@
+package com.booking.vehicleBooking.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//An outbox event as handed to sinks and in-process listeners. Delivery is at least once, so
+//listeners should use eventId to skip an event they have already handled.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DomainEvent {
+	
+	public static final String BOOKING_CREATED = "BookingCreated";
+	public static final String BOOKING_CANCELLED = "BookingCancelled";
+	public static final String VEHICLE_CREATED = "VehicleCreated";
+	public static final String VEHICLE_UPDATED = "VehicleUpdated";
+	public static final String VEHICLE_DELETED = "VehicleDeleted";
+	
+	private Long eventId;
+	private String eventType;
+	private Long aggregateId;
+	//JSON object with the event's fields
+	private String payload;
+	private LocalDateTime occurredAt;
+	
+}
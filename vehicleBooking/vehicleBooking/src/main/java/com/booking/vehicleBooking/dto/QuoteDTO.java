@@ -0,0 +1,25 @@
+package com.booking.vehicleBooking.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Data;
+
+//Price of renting one vehicle for a date range, amounts in the same currency as vehiclePrice
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class QuoteDTO {
+	
+	private Long vehicleId;
+	private LocalDate checkInDate;
+	private LocalDate checkOutDate;
+	private int numOfDays;
+	private int numOfMiles;
+	private BigDecimal dailyRate;
+	private BigDecimal rentalAmount;
+	private BigDecimal mileageAmount;
+	private BigDecimal totalAmount;
+	
+}
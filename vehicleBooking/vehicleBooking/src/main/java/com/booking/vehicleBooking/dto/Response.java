@@ -19,9 +19,15 @@ public class Response {
 	private UserDTO user;
 	private VehicleDTO vehicle;
 	private BookingDTO booking;
+	private QuoteDTO quote;
 	private String expirationTime;
+	private Long lastSeenId;
+	private Integer importedCount;
+	private Integer totalCount;
 
 	private List<UserDTO> userList;
 	private List<VehicleDTO> vehicleList;
 	private List<BookingDTO> bookingList;
+	private List<UtilizationDTO> utilizationList;
+	private List<String> errors;
 }
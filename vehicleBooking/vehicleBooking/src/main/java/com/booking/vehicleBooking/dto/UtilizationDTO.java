@@ -0,0 +1,25 @@
+package com.booking.vehicleBooking.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Data;
+
+//Fleet use of one vehicle type over one date bucket [bucketStart, bucketEnd)
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UtilizationDTO {
+	
+	private String vehicleType;
+	private LocalDate bucketStart;
+	private LocalDate bucketEnd;
+	private int fleetSize;
+	private long bookedDays;
+	private double utilizationPercent;
+	private long bookings;
+	private BigDecimal revenue;
+	private Double averageLeadTimeDays;
+	
+}
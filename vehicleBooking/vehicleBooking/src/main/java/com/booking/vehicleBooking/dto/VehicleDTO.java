@@ -18,6 +18,10 @@ public class VehicleDTO {
 	private String vehicleType;
 	private BigDecimal vehiclePrice;
 	private String vehiclePhotoUrl;
+	private String vehicleThumbnailSmallUrl;
+	private String vehicleThumbnailMediumUrl;
 	private String vehicleDescription;
+	//rental price for the searched dates, only set on search results
+	private BigDecimal quotedPrice;
 	private List<BookingDTO> bookings;
 }
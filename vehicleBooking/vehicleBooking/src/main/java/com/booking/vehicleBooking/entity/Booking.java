@@ -1,12 +1,15 @@
 package com.booking.vehicleBooking.entity;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -17,17 +20,24 @@ import lombok.Data;
 
 @Data
 @Entity
-@Table(name = "bookings")
+//Overlap checks filter on checkOutDate > checkIn, so the index leads with check_out_date after the vehicle:
+//only current and future bookings of the vehicle are in range, however long its history is
+@Table(name = "bookings", indexes = {
+		@Index(name = "idx_bookings_vehicle_check_out", columnList = "vehicle_id, check_out_date, check_in_date"),
+		@Index(name = "uk_bookings_confirmation_code", columnList = "booking_confirmation_code", unique = true)
+})
 public class Booking {
 	@Id
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
 	private Long id;
 	
 	@NotNull(message = "Check in date is required")
+	@Column(name = "check_in_date")
 	private LocalDate checkInDate;
 	
 	
 	@Future(message = "Check out date must be in the future")
+	@Column(name = "check_out_date")
 	private LocalDate checkOutDate;
 	
 	@Min(value = 1, message = "Number of passenger must not be less than 1")
@@ -36,9 +46,19 @@ public class Booking {
 	@Min(value = 0, message = "Number of miles traveling must not be less than 0")
 	private int numOfMiles;
 	
+	@Column(name = "booking_confirmation_code")
 	private String bookingConfirmationCode;
 	
-	@ManyToOne(fetch = FetchType.EAGER) //actively fetch user
+	//set by the service when the booking is made, null on bookings older than the column
+	@Column(name = "created_at", updatable = false)
+	private LocalDateTime createdAt;
+	
+	//rental plus mileage in cents at the rates in force when the booking was made, null on bookings
+	//older than the column or made while the vehicle had no price
+	@Column(name = "total_price_cents", updatable = false)
+	private Long totalPriceCents;
+	
+	@ManyToOne(fetch = FetchType.LAZY) //fetched explicitly by the queries that need the user
 	@JoinColumn(name = "user_id")
 	private User user;
 	
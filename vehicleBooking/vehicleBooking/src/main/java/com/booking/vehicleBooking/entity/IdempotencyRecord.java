@@ -0,0 +1,33 @@
+package com.booking.vehicleBooking.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+//Outcome of a request sent with an Idempotency-Key. The row is claimed before the request runs
+//(statusCode still null) and completed with the response that retries get back.
+@Data
+@Entity
+@Table(name = "idempotency_records")
+public class IdempotencyRecord {
+	@Id
+	@Column(name = "idempotency_key", length = 160)
+	private String idempotencyKey;
+	
+	//hash of the request the key was first used with, a retry must send the same request
+	@Column(name = "request_fingerprint", length = 64, nullable = false)
+	private String requestFingerprint;
+	
+	@Column(name = "status_code")
+	private Integer statusCode;
+	
+	@Column(name = "response_body", columnDefinition = "TEXT")
+	private String responseBody;
+	
+	@Column(name = "created_at", nullable = false)
+	private LocalDateTime createdAt;
+}
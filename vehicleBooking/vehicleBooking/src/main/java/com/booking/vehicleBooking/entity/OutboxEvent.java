@@ -0,0 +1,48 @@
+package com.booking.vehicleBooking.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+//Domain event written in the same transaction as the change it describes. Rows stay unpublished
+//until the dispatcher has handed them to the event sink. A row that fails delivery on its own too
+//many times is parked: it stays in the table with parked_at set and is no longer sent.
+@Data
+@Entity
+@Table(name = "outbox_events", indexes = {
+		@Index(name = "idx_outbox_events_published_id", columnList = "published_at, id")
+})
+public class OutboxEvent {
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+	
+	@Column(name = "event_type", nullable = false)
+	private String eventType;
+	
+	@Column(name = "aggregate_id")
+	private Long aggregateId;
+	
+	@Column(name = "payload", columnDefinition = "TEXT")
+	private String payload;
+	
+	@Column(name = "created_at", nullable = false)
+	private LocalDateTime createdAt;
+	
+	@Column(name = "published_at")
+	private LocalDateTime publishedAt;
+	
+	//failed deliveries of this event on its own
+	@Column(name = "attempts", nullable = false)
+	private int attempts;
+	
+	@Column(name = "parked_at")
+	private LocalDateTime parkedAt;
+}
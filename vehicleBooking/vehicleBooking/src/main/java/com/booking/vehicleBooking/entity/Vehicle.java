@@ -12,13 +12,16 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 import lombok.Data;
 
 @Data
 @Entity
-@Table(name = "vehicles")
+@Table(name = "vehicles", indexes = {
+		@Index(name = "idx_vehicles_vehicle_type", columnList = "vehicle_type")
+})
 public class Vehicle {
 	@Id
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -27,6 +30,8 @@ public class Vehicle {
 	private String vehicleType;
 	private BigDecimal vehiclePrice;
 	private String vehiclePhotoUrl;
+	private String vehicleThumbnailSmallUrl;
+	private String vehicleThumbnailMediumUrl;
 	private String vehicleDescription;
 	
 	@OneToMany(mappedBy = "vehicle", fetch=FetchType.LAZY, cascade= CascadeType.ALL)
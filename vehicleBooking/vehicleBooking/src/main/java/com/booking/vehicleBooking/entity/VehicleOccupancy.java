@@ -0,0 +1,26 @@
+package com.booking.vehicleBooking.entity;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+//Side table of the per-vehicle day bitmaps kept by VehicleAvailabilityIndex.
+//Bit i of occupancy (byte i / 8, bit i % 8) is set when the vehicle is booked on horizonStart + i.
+@Data
+@Entity
+@Table(name = "vehicle_occupancy")
+public class VehicleOccupancy {
+	@Id
+	@Column(name = "vehicle_id")
+	private Long vehicleId;
+
+	@Column(name = "horizon_start")
+	private LocalDate horizonStart;
+
+	@Column(name = "occupancy", length = 96)
+	private byte[] occupancy;
+}
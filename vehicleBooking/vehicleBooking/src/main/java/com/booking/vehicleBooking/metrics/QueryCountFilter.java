@@ -0,0 +1,57 @@
+package com.booking.vehicleBooking.metrics;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+//Records how many SQL statements each request ran, tagged like http.server.requests.
+//Runs ahead of the security chain so the JWT user lookup is counted as well.
+//Statements run on other threads (background uploads) are not attributed. Requests that go async
+//(NDJSON streaming) are not recorded at all: the body runs after this filter has returned.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class QueryCountFilter extends OncePerRequestFilter {
+
+	public static final String QUERY_COUNT_SUMMARY = "vehicle.booking.db.queries";
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		QueryCountInspector.reset();
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			if (!request.isAsyncStarted()) {
+				record(request);
+			}
+			QueryCountInspector.reset();
+		}
+	}
+
+	private void record(HttpServletRequest request) {
+		Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+		DistributionSummary.builder(QUERY_COUNT_SUMMARY)
+				.description("SQL statements executed per HTTP request")
+				.baseUnit("queries")
+				.tag("method", request.getMethod())
+				.tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+				.publishPercentiles(0.5, 0.95, 0.99)
+				.register(meterRegistry)
+				.record(QueryCountInspector.count());
+	}
+}
@@ -0,0 +1,25 @@
+package com.booking.vehicleBooking.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+//Counts the SQL statements Hibernate prepares on the current thread. Hibernate creates this class
+//itself (hibernate.session_factory.statement_inspector), so the count lives in a static ThreadLocal
+//that QueryCountFilter resets and reads around each request.
+public class QueryCountInspector implements StatementInspector {
+
+	private static final ThreadLocal<int[]> queryCount = ThreadLocal.withInitial(() -> new int[1]);
+
+	@Override
+	public String inspect(String sql) {
+		queryCount.get()[0]++;
+		return sql;
+	}
+
+	public static void reset() {
+		queryCount.get()[0] = 0;
+	}
+
+	public static int count() {
+		return queryCount.get()[0];
+	}
+}
@@ -0,0 +1,44 @@
+package com.booking.vehicleBooking.metrics;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.booking.vehicleBooking.dto.Response;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+//Times every method of the service interfaces. Services report errors through Response.statusCode
+//instead of exceptions, so the status tag is taken from the returned Response, not from HTTP.
+@Aspect
+@Component
+public class ServiceMetricsAspect {
+
+	public static final String SERVICE_TIMER = "vehicle.booking.service";
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Around("execution(* com.booking.vehicleBooking.service.interfac.*.*(..))")
+	public Object timeServiceMethod(ProceedingJoinPoint joinPoint) throws Throwable {
+		Timer.Sample sample = Timer.start(meterRegistry);
+		String status = "exception";
+		try {
+			Object result = joinPoint.proceed();
+			status = result instanceof Response response ? String.valueOf(response.getStatusCode()) : "ok";
+			return result;
+		} finally {
+			sample.stop(Timer.builder(SERVICE_TIMER)
+					.description("Service method latency by returned status code")
+					.tag("service", joinPoint.getSignature().getDeclaringType().getSimpleName())
+					.tag("method", joinPoint.getSignature().getName())
+					.tag("status", status)
+					.publishPercentiles(0.5, 0.95, 0.99)
+					.publishPercentileHistogram()
+					.register(meterRegistry));
+		}
+	}
+}
@@ -1,9 +1,15 @@
 package com.booking.vehicleBooking.repo;
 
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import com.booking.vehicleBooking.entity.Booking;
 
@@ -12,7 +18,46 @@ public interface BookingRepository extends JpaRepository<Booking, Long>{
 
 
 	
+	@EntityGraph(attributePaths = {"user", "vehicle"})
 	Optional<Booking> findByBookingConfirmationCode(String confirmationCode);
 	
+	boolean existsByBookingConfirmationCode(String confirmationCode);
+	
+	//Booked ranges are half-open [checkInDate, checkOutDate): a vehicle returned on a day can be picked up again that day.
+	//Stops at the first overlapping row, and idx_bookings_vehicle_check_out narrows the scan to the vehicle's
+	//bookings checking out after checkInDate, so bookings that already ended are never read.
+	default boolean existsOverlappingBooking(Long vehicleId, LocalDate checkInDate, LocalDate checkOutDate) {
+		return !findOverlappingBookingIds(vehicleId, checkInDate, checkOutDate, Limit.of(1)).isEmpty();
+	}
+	
+	@Query("SELECT b.id FROM Booking b WHERE b.vehicle.id = :vehicleId " +
+		   "AND b.checkOutDate > :checkInDate AND b.checkInDate < :checkOutDate")
+	List<Long> findOverlappingBookingIds(Long vehicleId, LocalDate checkInDate, LocalDate checkOutDate, Limit limit);
+	
+	//vehicle id, check in, check out of every booking on the given vehicles that touches [from, to).
+	//A batch passes the envelope of all its ranges and checks each request against the rows in memory.
+	@Query("SELECT b.vehicle.id, b.checkInDate, b.checkOutDate FROM Booking b WHERE b.vehicle.id IN :vehicleIds " +
+		   "AND b.checkOutDate > :from AND b.checkInDate < :to")
+	List<Object[]> findBookingRangesOverlapping(Collection<Long> vehicleIds, LocalDate from, LocalDate to);
+	
+	@Query("SELECT b.bookingConfirmationCode FROM Booking b WHERE b.bookingConfirmationCode IN :codes")
+	List<String> findExistingConfirmationCodes(Collection<String> codes);
+	
+	//keyset page, newest first: pass the smallest id of the previous page
+	List<Booking> findByIdLessThanOrderByIdDesc(Long lastSeenId, Limit limit);
+	
+	//id, vehicle id, check in, check out of every booking without hydrating entities
+	@Query("SELECT b.id, b.vehicle.id, b.checkInDate, b.checkOutDate FROM Booking b")
+	List<Object[]> findAllBookingRanges();
+	
+	//id, vehicle id, check in, check out, miles, created at, total price of the bookings after an id, oldest first
+	@Query("SELECT b.id, b.vehicle.id, b.checkInDate, b.checkOutDate, b.numOfMiles, b.createdAt, b.totalPriceCents FROM Booking b " +
+		   "WHERE b.id > :afterId ORDER BY b.id")
+	List<Object[]> findAnalyticsRowsAfter(Long afterId, Limit limit);
+	
+	@Query("SELECT b.id, b.vehicle.id, b.checkInDate, b.checkOutDate, b.numOfMiles, b.createdAt, b.totalPriceCents FROM Booking b " +
+		   "WHERE b.id IN :bookingIds ORDER BY b.id")
+	List<Object[]> findAnalyticsRowsByIds(Collection<Long> bookingIds);
+	
 
 }
@@ -0,0 +1,37 @@
+package com.booking.vehicleBooking.repo;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.booking.vehicleBooking.entity.IdempotencyRecord;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String>{
+	
+	//a plain INSERT, so a key that is already claimed fails on the primary key instead of being merged
+	@Modifying
+	@Transactional
+	@Query(value = "INSERT INTO idempotency_records (idempotency_key, request_fingerprint, created_at) " +
+			"VALUES (:idempotencyKey, :requestFingerprint, :createdAt)", nativeQuery = true)
+	void claim(String idempotencyKey, String requestFingerprint, LocalDateTime createdAt);
+	
+	@Modifying
+	@Transactional
+	@Query("UPDATE IdempotencyRecord r SET r.statusCode = :statusCode, r.responseBody = :responseBody " +
+		   "WHERE r.idempotencyKey = :idempotencyKey")
+	int complete(String idempotencyKey, Integer statusCode, String responseBody);
+	
+	//removes an expired record ahead of the purge; the createdAt match leaves a newer claim alone
+	@Modifying
+	@Transactional
+	@Query("DELETE FROM IdempotencyRecord r WHERE r.idempotencyKey = :idempotencyKey AND r.createdAt = :createdAt")
+	int deleteExpired(String idempotencyKey, LocalDateTime createdAt);
+	
+	@Modifying
+	@Transactional
+	@Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :createdBefore")
+	int deleteCreatedBefore(LocalDateTime createdBefore);
+}
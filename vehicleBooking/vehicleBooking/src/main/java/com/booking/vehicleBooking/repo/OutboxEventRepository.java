@@ -0,0 +1,35 @@
+package com.booking.vehicleBooking.repo;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.booking.vehicleBooking.entity.OutboxEvent;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long>{
+	
+	//oldest first, so events reach the sink in the order they were written
+	List<OutboxEvent> findByPublishedAtIsNullAndParkedAtIsNullOrderByIdAsc(Limit limit);
+	
+	@Modifying
+	@Transactional
+	@Query("UPDATE OutboxEvent e SET e.publishedAt = :publishedAt WHERE e.id IN :ids")
+	int markPublished(Collection<Long> ids, LocalDateTime publishedAt);
+	
+	//parkedAt is null unless the event has used up its attempts
+	@Modifying
+	@Transactional
+	@Query("UPDATE OutboxEvent e SET e.attempts = :attempts, e.parkedAt = :parkedAt WHERE e.id = :id")
+	int recordFailedAttempt(Long id, int attempts, LocalDateTime parkedAt);
+	
+	@Modifying
+	@Transactional
+	@Query("DELETE FROM OutboxEvent e WHERE e.publishedAt < :publishedBefore")
+	int deletePublishedBefore(LocalDateTime publishedBefore);
+}
@@ -3,6 +3,7 @@ package com.booking.vehicleBooking.repo;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import com.booking.vehicleBooking.entity.User;
 
@@ -11,5 +12,9 @@ public interface UserRepository extends JpaRepository<User, Long>{
 	boolean existsByEmail(String email);
 	Optional<User> findByEmail(String email);
 	
+	//user, their bookings and each booked vehicle in a single round trip
+	@Query("SELECT DISTINCT u FROM User u LEFT JOIN FETCH u.bookings b LEFT JOIN FETCH b.vehicle WHERE u.id = :userId")
+	Optional<User> findByIdWithBookingsAndVehicles(Long userId);
+	
 	
 }
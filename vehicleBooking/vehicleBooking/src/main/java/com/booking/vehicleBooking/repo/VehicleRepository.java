@@ -1,8 +1,10 @@
 package com.booking.vehicleBooking.repo;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
@@ -13,16 +15,36 @@ public interface VehicleRepository extends JpaRepository<Vehicle, Long>{
 	@Query("SELECT DISTINCT v.vehicleType FROM Vehicle v")
 	List<String> findDistinctVehicleTypes();
 	
-	//Find vehicle by date available and vehicle type
-	@Query("SELECT v FROM Vehicle v WHERE v.vehicleType LIKE %:vehicleType% " +
+	//Find vehicle by date available and vehicle type. Types are stored normalized and compared whole,
+	//so the lookup uses idx_vehicles_vehicle_type (case-insensitive under MySQL's default collation)
+	@Query("SELECT v FROM Vehicle v WHERE v.vehicleType = :vehicleType " +
 		       "AND v.id NOT IN (" +
 		       "SELECT bk.vehicle.id FROM Booking bk " +
-		       "WHERE (bk.checkInDate <= :checkOutDate AND bk.checkOutDate >= :checkInDate))"
+		       "WHERE (bk.checkInDate < :checkOutDate AND bk.checkOutDate > :checkInDate))"
 		)
 	List<Vehicle> findAvailableVehicleByDatesAndTypes(LocalDate checkInDate, 
 													  LocalDate checkOutDate,
 													  String vehicleType);
 	
-	@Query("SELECT v FROM Vehicle v WHERE v.id NOT IN (SELECT b.vehicle.id FROM Booking b)")
-	List<Vehicle> getAllAvailableVehicles();
+	@Query("SELECT v FROM Vehicle v WHERE v.id NOT IN (" +
+		       "SELECT bk.vehicle.id FROM Booking bk " +
+		       "WHERE (bk.checkInDate < :checkOutDate AND bk.checkOutDate > :checkInDate))"
+		)
+	List<Vehicle> findAvailableVehicleByDates(LocalDate checkInDate, LocalDate checkOutDate);
+	
+	//vehicles with no booking running or still to come
+	@Query("SELECT v FROM Vehicle v WHERE v.id NOT IN (SELECT b.vehicle.id FROM Booking b WHERE b.checkOutDate > :today)")
+	List<Vehicle> getAllAvailableVehicles(LocalDate today);
+	
+	//keyset page, newest first: pass the smallest id of the previous page
+	List<Vehicle> findByIdLessThanOrderByIdDesc(Long lastSeenId, Limit limit);
+	
+	@Query("SELECT v.id, v.vehicleType FROM Vehicle v")
+	List<Object[]> findAllVehicleIdsAndTypes();
+	
+	@Query("SELECT v.id, v.vehiclePrice FROM Vehicle v")
+	List<Object[]> findAllVehicleIdsAndPrices();
+	
+	@Query("SELECT v.id FROM Vehicle v WHERE v.id IN :vehicleIds")
+	List<Long> findExistingIds(Collection<Long> vehicleIds);
 }
@@ -15,6 +15,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import com.booking.vehicleBooking.service.impl.CustomUserDetailsService;
 import com.booking.vehicleBooking.utils.JWTUtils;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -43,11 +44,12 @@ public class JWTAuthFilter extends OncePerRequestFilter{
 		}
 		
 		jwtToken = authHeader.substring(7); //Remove Bearer at beginning of token
-		userEmail = jwtUtils.extractUsername(jwtToken);
+		Claims claims = jwtUtils.extractAllClaims(jwtToken); //verified once, cached until the token expires
+		userEmail = claims.getSubject();
 		
 		if(userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-			UserDetails userDetails = customUserDetailsService.loadUserByUsername(userEmail);
-			if(jwtUtils.isValidToken(jwtToken, userDetails)) {
+			UserDetails userDetails = customUserDetailsService.loadCachedUserByUsername(userEmail);
+			if(jwtUtils.isValidToken(claims, userDetails)) {
 				SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
 				UsernamePasswordAuthenticationToken token = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
 				token.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
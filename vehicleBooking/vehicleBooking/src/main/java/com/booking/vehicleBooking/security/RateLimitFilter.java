@@ -0,0 +1,169 @@
+package com.booking.vehicleBooking.security;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.booking.vehicleBooking.dto.Response;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+//Token buckets per route group, keyed by the signed-in user or else the client IP. Each bucket is
+//a single AtomicLong holding the time it will next be full (GCRA), so taking a token is one
+//compare-and-set and never locks. Runs after JWTAuthFilter so a signed-in user is known.
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+	public static final String REJECTED_COUNTER = "vehicle.booking.rate_limit.rejected";
+
+	private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+	@Autowired
+	private Environment environment;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Value("${rate-limit.enabled:true}")
+	private boolean enabled;
+
+	//buckets per group; past this, new clients share one overflow bucket until idle ones are evicted
+	@Value("${rate-limit.max-keys:100000}")
+	private int maxKeys;
+
+	private List<RouteGroup> groups;
+
+	@PostConstruct
+	void readGroups() {
+		groups = new ArrayList<>();
+		for (String name : environment.getProperty("rate-limit.groups", "").split(",")) {
+			if (name.isBlank()) continue;
+			String prefix = "rate-limit." + name.trim() + ".";
+			List<String> paths = new ArrayList<>();
+			for (String path : environment.getRequiredProperty(prefix + "paths").split(",")) {
+				paths.add(path.trim());
+			}
+			long burst = environment.getProperty(prefix + "burst", Long.class, 10L);
+			double perMinute = environment.getProperty(prefix + "per-minute", Double.class, 60.0);
+			if (burst < 1 || perMinute <= 0) {
+				throw new IllegalStateException(prefix + "burst and " + prefix + "per-minute must be positive");
+			}
+			long emissionNanos = (long) (TimeUnit.MINUTES.toNanos(1) / perMinute);
+			groups.add(new RouteGroup(name.trim(), paths, emissionNanos, emissionNanos * burst, new ConcurrentHashMap<>()));
+		}
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !enabled || groups.isEmpty();
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+
+		RouteGroup group = matchGroup(request.getServletPath());
+		if (group == null) {
+			filterChain.doFilter(request, response);
+			return;
+		}
+
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		boolean signedIn = authentication != null && authentication.isAuthenticated()
+				&& !(authentication instanceof AnonymousAuthenticationToken);
+		String key = signedIn ? "user:" + authentication.getName() : "ip:" + request.getRemoteAddr();
+
+		long waitNanos = group.tryAcquire(key, System.nanoTime(), maxKeys);
+		if (waitNanos == 0) {
+			filterChain.doFilter(request, response);
+			return;
+		}
+
+		meterRegistry.counter(REJECTED_COUNTER, "group", group.name(), "client", signedIn ? "user" : "ip").increment();
+		Response body = new Response();
+		body.setStatusCode(429);
+		body.setMessage("Too many requests, try again later");
+		response.setStatus(429);
+		response.setHeader("Retry-After", String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999))));
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		objectMapper.writeValue(response.getOutputStream(), body);
+	}
+
+	//first group whose paths match wins, so list the narrow groups first
+	private RouteGroup matchGroup(String path) {
+		for (RouteGroup group : groups) {
+			for (String pattern : group.paths()) {
+				if (pathMatcher.match(pattern, path)) {
+					return group;
+				}
+			}
+		}
+		return null;
+	}
+
+	//A bucket whose full time has passed holds nothing a new bucket would not, so dropping it
+	//changes no decision. remove(key, value) leaves a bucket that was replaced in the meantime.
+	@Scheduled(fixedDelayString = "${rate-limit.idle-sweep-interval-ms:60000}")
+	public void evictIdleBuckets() {
+		long now = System.nanoTime();
+		for (RouteGroup group : groups) {
+			for (Map.Entry<String, AtomicLong> entry : group.buckets().entrySet()) {
+				if (entry.getValue().get() - now <= 0) {
+					group.buckets().remove(entry.getKey(), entry.getValue());
+				}
+			}
+		}
+	}
+
+	record RouteGroup(String name, List<String> paths, long emissionNanos, long burstNanos,
+			ConcurrentHashMap<String, AtomicLong> buckets) {
+
+		private static final String OVERFLOW_KEY = "overflow";
+
+		//0 when a token was taken, otherwise how long until one is available
+		long tryAcquire(String key, long now, int maxKeys) {
+			AtomicLong fullAt = buckets.get(key);
+			if (fullAt == null) {
+				if (buckets.size() >= maxKeys) {
+					key = OVERFLOW_KEY;
+				}
+				fullAt = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+			}
+			while (true) {
+				long current = fullAt.get();
+				long next = (current - now > 0 ? current : now) + emissionNanos;
+				if (next - now > burstNanos) {
+					return next - now - burstNanos;
+				}
+				if (fullAt.compareAndSet(current, next)) {
+					return 0;
+				}
+			}
+		}
+	}
+}
@@ -31,6 +31,8 @@ public class SecurityConfig {
 	private CustomUserDetailsService customUserDetailsService;
 	@Autowired
 	private JWTAuthFilter jwtAuthFilter;
+	@Autowired
+	private RateLimitFilter rateLimitFilter;
 	
 	@Bean
 	public SecurityFilterChain securityFilterChain(HttpSecurity httpSecurity) throws Exception {
@@ -38,10 +40,13 @@ public class SecurityConfig {
 					.cors(Customizer.withDefaults())
 					.authorizeHttpRequests(request -> request
 					.requestMatchers("/auth/**", "/vehicles/**", "/bookings/**").permitAll()
+					.requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
+					.requestMatchers("/actuator/**").hasAuthority("ADMIN")
 					.anyRequest().authenticated())
 					.sessionManagement(manager -> manager.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
 					.authenticationProvider(authenticationProvider())
-					.addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+					.addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+					.addFilterAfter(rateLimitFilter, JWTAuthFilter.class);
 		
 		return httpSecurity.build();
 	}
@@ -0,0 +1,231 @@
+package com.booking.vehicleBooking.service.impl;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.booking.vehicleBooking.dto.Response;
+import com.booking.vehicleBooking.dto.UtilizationDTO;
+import com.booking.vehicleBooking.service.impl.BookingAnalyticsSnapshot.Columns;
+import com.booking.vehicleBooking.service.interfac.IAnalyticsService;
+
+//Utilization, revenue and lead time per vehicle type and date bucket, aggregated over the booking
+//snapshot with fork-join: each task sums a slice of rows into flat type x bucket arrays and the
+//partial arrays are added together on the way back up.
+@Service
+public class AnalyticsService implements IAnalyticsService {
+
+	private static final int ROWS_PER_TASK = 1 << 16;
+	private static final int MAX_BUCKETS = 1000;
+
+	@Autowired
+	private BookingAnalyticsSnapshot bookingAnalyticsSnapshot;
+
+	@Autowired
+	private VehicleAvailabilityIndex vehicleAvailabilityIndex;
+
+	@Override
+	public Response getUtilization(LocalDate from, LocalDate to, String bucket) {
+
+		Response response = new Response();
+
+		try {
+			int[] bucketStarts = bucketStarts(from, to, bucket);
+			if (!vehicleAvailabilityIndex.isReady()) {
+				response.setStatusCode(503);
+				response.setMessage("Vehicle data is still loading, try again shortly");
+				return response;
+			}
+
+			//bookings of deleted vehicles are gone with them, so they have no type and are skipped
+			Map<String, Set<Long>> fleet = vehicleAvailabilityIndex.getVehicleIdsByType();
+			List<String> types = new ArrayList<>(fleet.keySet());
+			Map<Long, Integer> typeOfVehicle = new HashMap<>();
+			for (int type = 0; type < types.size(); type++) {
+				for (Long vehicleId : fleet.get(types.get(type))) {
+					typeOfVehicle.put(vehicleId, type);
+				}
+			}
+
+			Columns columns = bookingAnalyticsSnapshot.refresh();
+			Totals totals = ForkJoinPool.commonPool().invoke(
+					new AggregateTask(columns, 0, columns.size(), typeOfVehicle, types.size(), bucketStarts));
+
+			int buckets = bucketStarts.length - 1;
+			List<UtilizationDTO> utilizationList = new ArrayList<>(types.size() * buckets);
+			for (int type = 0; type < types.size(); type++) {
+				int fleetSize = fleet.get(types.get(type)).size();
+				for (int b = 0; b < buckets; b++) {
+					int cell = type * buckets + b;
+					long capacityDays = (long) fleetSize * (bucketStarts[b + 1] - bucketStarts[b]);
+
+					UtilizationDTO utilizationDTO = new UtilizationDTO();
+					utilizationDTO.setVehicleType(types.get(type));
+					utilizationDTO.setBucketStart(LocalDate.ofEpochDay(bucketStarts[b]));
+					utilizationDTO.setBucketEnd(LocalDate.ofEpochDay(bucketStarts[b + 1]));
+					utilizationDTO.setFleetSize(fleetSize);
+					utilizationDTO.setBookedDays(totals.bookedDays[cell]);
+					utilizationDTO.setUtilizationPercent(capacityDays == 0 ? 0
+							: Math.round(totals.bookedDays[cell] * 10_000.0 / capacityDays) / 100.0);
+					utilizationDTO.setBookings(totals.bookings[cell]);
+					utilizationDTO.setRevenue(PricingEngine.fromCents(totals.revenueCents[cell]));
+					if (totals.leadTimeCount[cell] > 0) {
+						utilizationDTO.setAverageLeadTimeDays(Math.round(totals.leadTimeDays[cell] * 100.0 / totals.leadTimeCount[cell]) / 100.0);
+					}
+					utilizationList.add(utilizationDTO);
+				}
+			}
+
+			response.setStatusCode(200);
+			response.setMessage("Success");
+			response.setUtilizationList(utilizationList);
+
+		} catch (IllegalArgumentException e) {
+			response.setStatusCode(400);
+			response.setMessage(e.getMessage());
+		} catch (Exception e) {
+			response.setStatusCode(500);
+			response.setMessage("Error computing utilization " + e.getMessage());
+		}
+		return response;
+	}
+
+	//Bucket boundaries as epoch days: from, each calendar day / Monday / first of the month in
+	//between, and to. The first and last buckets may be partial.
+	private static int[] bucketStarts(LocalDate from, LocalDate to, String bucket) {
+		if (!to.isAfter(from)) {
+			throw new IllegalArgumentException("to must be after from");
+		}
+		List<LocalDate> starts = new ArrayList<>();
+		LocalDate start = from;
+		while (start.isBefore(to)) {
+			if (starts.size() == MAX_BUCKETS) {
+				throw new IllegalArgumentException("At most " + MAX_BUCKETS + " buckets per request, use a larger bucket or a shorter range");
+			}
+			starts.add(start);
+			start = switch (bucket.toLowerCase(Locale.ROOT)) {
+				case "day" -> start.plusDays(1);
+				case "week" -> start.with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+				case "month" -> start.with(TemporalAdjusters.firstDayOfNextMonth());
+				default -> throw new IllegalArgumentException("bucket must be day, week or month");
+			};
+		}
+		int[] bucketStarts = new int[starts.size() + 1];
+		for (int i = 0; i < starts.size(); i++) {
+			bucketStarts[i] = (int) starts.get(i).toEpochDay();
+		}
+		bucketStarts[starts.size()] = (int) to.toEpochDay();
+		return bucketStarts;
+	}
+
+	//per type x bucket cell, row-major by type
+	private static final class Totals {
+
+		private final long[] bookedDays;
+		private final long[] bookings;
+		private final long[] revenueCents;
+		private final long[] leadTimeDays;
+		private final long[] leadTimeCount;
+
+		Totals(int cells) {
+			bookedDays = new long[cells];
+			bookings = new long[cells];
+			revenueCents = new long[cells];
+			leadTimeDays = new long[cells];
+			leadTimeCount = new long[cells];
+		}
+
+		Totals add(Totals other) {
+			for (int cell = 0; cell < bookedDays.length; cell++) {
+				bookedDays[cell] += other.bookedDays[cell];
+				bookings[cell] += other.bookings[cell];
+				revenueCents[cell] += other.revenueCents[cell];
+				leadTimeDays[cell] += other.leadTimeDays[cell];
+				leadTimeCount[cell] += other.leadTimeCount[cell];
+			}
+			return this;
+		}
+	}
+
+	private static final class AggregateTask extends RecursiveTask<Totals> {
+
+		private final Columns columns;
+		private final int fromRow;
+		private final int toRow;
+		private final Map<Long, Integer> typeOfVehicle;
+		private final int typeCount;
+		private final int[] bucketStarts;
+
+		AggregateTask(Columns columns, int fromRow, int toRow, Map<Long, Integer> typeOfVehicle, int typeCount, int[] bucketStarts) {
+			this.columns = columns;
+			this.fromRow = fromRow;
+			this.toRow = toRow;
+			this.typeOfVehicle = typeOfVehicle;
+			this.typeCount = typeCount;
+			this.bucketStarts = bucketStarts;
+		}
+
+		@Override
+		protected Totals compute() {
+			if (toRow - fromRow > ROWS_PER_TASK) {
+				int middle = (fromRow + toRow) >>> 1;
+				AggregateTask left = new AggregateTask(columns, fromRow, middle, typeOfVehicle, typeCount, bucketStarts);
+				left.fork();
+				Totals right = new AggregateTask(columns, middle, toRow, typeOfVehicle, typeCount, bucketStarts).compute();
+				return right.add(left.join());
+			}
+
+			int buckets = bucketStarts.length - 1;
+			int rangeStart = bucketStarts[0];
+			int rangeEnd = bucketStarts[buckets];
+			Totals totals = new Totals(typeCount * buckets);
+
+			for (int row = fromRow; row < toRow; row++) {
+				if (columns.cancelled()[row]) continue;
+				int checkIn = columns.checkInDays()[row];
+				int checkOut = columns.checkOutDays()[row];
+				if (checkOut <= rangeStart || checkIn >= rangeEnd) continue;
+				Integer type = typeOfVehicle.get(columns.vehicleIds()[row]);
+				if (type == null) continue;
+				int typeOffset = type * buckets;
+
+				int start = Math.max(checkIn, rangeStart);
+				int end = Math.min(checkOut, rangeEnd);
+				int bucket = bucketOf(start);
+				for (int b = bucket; b < buckets && bucketStarts[b] < end; b++) {
+					totals.bookedDays[typeOffset + b] += Math.min(end, bucketStarts[b + 1]) - Math.max(start, bucketStarts[b]);
+				}
+
+				//counts, revenue and lead time belong to the bucket the booking starts in
+				if (checkIn >= rangeStart) {
+					int cell = typeOffset + bucket;
+					totals.bookings[cell]++;
+					totals.revenueCents[cell] += columns.revenueCents()[row];
+					int createdDay = columns.createdDays()[row];
+					if (createdDay != BookingAnalyticsSnapshot.UNKNOWN_DAY) {
+						totals.leadTimeDays[cell] += checkIn - createdDay;
+						totals.leadTimeCount[cell]++;
+					}
+				}
+			}
+			return totals;
+		}
+
+		private int bucketOf(int day) {
+			int index = Arrays.binarySearch(bucketStarts, day);
+			return index >= 0 ? index : -index - 2;
+		}
+	}
+}
@@ -0,0 +1,26 @@
+package com.booking.vehicleBooking.service.impl;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import com.booking.vehicleBooking.dto.DomainEvent;
+import com.booking.vehicleBooking.service.interfac.IEventSink;
+
+//Hands outbox events to in-process @EventListener(DomainEvent) methods on the dispatcher thread,
+//off the request path. A listener that throws makes the batch go out again.
+@Component
+public class ApplicationEventSink implements IEventSink {
+
+	@Autowired
+	private ApplicationEventPublisher applicationEventPublisher;
+
+	@Override
+	public void publish(List<DomainEvent> events) {
+		for (DomainEvent event : events) {
+			applicationEventPublisher.publishEvent(event);
+		}
+	}
+}
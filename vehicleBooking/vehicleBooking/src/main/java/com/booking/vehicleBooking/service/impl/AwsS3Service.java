@@ -1,75 +1,211 @@
 package com.booking.vehicleBooking.service.impl;
 
-import java.io.InputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 import com.booking.vehicleBooking.exception.CustomException;
+import com.booking.vehicleBooking.service.interfac.IImageStorageService;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
 import software.amazon.awssdk.regions.Region;
-import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3AsyncClientBuilder;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
-import software.amazon.awssdk.services.s3.model.PutObjectResponse;
 import software.amazon.awssdk.services.s3.model.S3Exception;
-import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
 
 @Service
-public class AwsS3Service {
+@ConditionalOnProperty(name = "image.storage", havingValue = "s3", matchIfMissing = true)
+public class AwsS3Service implements IImageStorageService {
+
+    private static final Logger log = LoggerFactory.getLogger(AwsS3Service.class);
 
-    private final String bucketName = "vehicle-booking-images"; 
+    // Files above this size are sent as a multipart upload (S3 needs parts of at least 5 MB)
+    private static final long MULTIPART_THRESHOLD = 16L * 1024 * 1024;
+    private static final long PART_SIZE = 8L * 1024 * 1024;
+
+    @Value("${bucket-name:vehicle-booking-images}")
+    private String bucketName;
 
     @Value("${aws.s3.access.key}")
-    private String awsS3accessKey; 
+    private String awsS3accessKey;
 
     @Value("${aws.s3.secret.key}")
-    private String awsS3SecretKey; 
+    private String awsS3SecretKey;
+
+    // Optional S3-compatible endpoint (MinIO, LocalStack) for local runs and tests
+    @Value("${aws.s3.endpoint:}")
+    private String endpoint;
+
+    // Uploads in flight at once, further requests wait for a permit before sending anything
+    @Value("${aws.s3.upload.max-concurrency:4}")
+    private int uploadConcurrency;
+
+    // One client and connection pool for the whole application
+    private S3AsyncClient s3Client;
+
+    private Semaphore uploadPermits;
+
+    @PostConstruct
+    void init() {
+        AwsBasicCredentials awsCredentials = AwsBasicCredentials.create(awsS3accessKey, awsS3SecretKey);
+        S3AsyncClientBuilder builder = S3AsyncClient.builder()
+                .region(Region.US_EAST_2)
+                .credentialsProvider(StaticCredentialsProvider.create(awsCredentials));
+        if (!endpoint.isBlank()) {
+            builder.endpointOverride(URI.create(endpoint)).forcePathStyle(true);
+        }
+        s3Client = builder.build();
+
+        uploadPermits = new Semaphore(uploadConcurrency, true);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        s3Client.close();
+    }
+
+    // Uploads on the calling thread, so a vehicle is only saved with a URL that resolves. The permits
+    // bound how many uploads run at once, the staged file is deleted afterwards either way
+    @Override
+    public String saveImage(String key, Path file, String contentType) {
+        try {
+            uploadPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            deleteStaged(file);
+            throw new CustomException("Interrupted while waiting to upload image to S3 bucket");
+        }
+        try {
+            upload(key, contentType, file);
+        } catch (RuntimeException e) {
+            log.error("Unable to upload image {} to S3 bucket {}", key, bucketName, e);
+            throw new CustomException("Unable to upload image to S3 bucket");
+        } finally {
+            uploadPermits.release();
+        }
 
-    public String saveImageToS3(MultipartFile photo) {
+        // Return the public URL of the uploaded image
+        return imageUrl(key);
+    }
+
+    @Override
+    public boolean imageExists(String key) {
         try {
-            // Get the S3 filename (photo name)
-            String s3Filename = photo.getOriginalFilename();
-
-            // Build AWS credentials
-            AwsBasicCredentials awsCredentials = AwsBasicCredentials.create(awsS3accessKey, awsS3SecretKey);
-
-            // Build S3 client
-            S3Client s3Client = S3Client.builder()
-                    .region(Region.US_EAST_2)
-                    .credentialsProvider(StaticCredentialsProvider.create(awsCredentials))
-                    .build();
-
-            // Get the file input stream and metadata
-            InputStream inputStream = photo.getInputStream();
-            long contentLength = photo.getSize(); // file size
-            String contentType = photo.getContentType(); // dynamic content type
-
-            // Validate that the file is an image (optional but recommended)
-            if (contentType == null || (!contentType.equals("image/jpeg") && 
-                                        !contentType.equals("image/png") && 
-                                        !contentType.equals("image/jpg"))) {
-                throw new CustomException("Invalid file type. Only JPEG, JPG, and PNG are allowed.");
+            s3Client.headObject(HeadObjectRequest.builder().bucket(bucketName).key(key).build()).join();
+            return true;
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof S3Exception s3Exception && s3Exception.statusCode() == 404) {
+                return false;
             }
+            throw new CustomException("Unable to reach S3 bucket");
+        }
+    }
 
-            // Create the PutObjectRequest with dynamic content type
-            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
-                    .bucket(bucketName)
-                    .key(s3Filename)
-                    .contentType(contentType) // dynamic content type
-                    .build();
+    @Override
+    public String imageUrl(String key) {
+        if (!endpoint.isBlank()) {
+            return endpoint + "/" + bucketName + "/" + key;
+        }
+        return "https://" + bucketName + ".s3.amazonaws.com/" + key;
+    }
+
+    private void upload(String key, String contentType, Path file) {
+        try {
+            long contentLength = Files.size(file);
+            if (contentLength > MULTIPART_THRESHOLD) {
+                uploadMultipart(key, contentType, file, contentLength);
+            } else {
+                PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+                        .bucket(bucketName)
+                        .key(key)
+                        .contentType(contentType)
+                        .build();
+                s3Client.putObject(putObjectRequest, AsyncRequestBody.fromFile(file)).join();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deleteStaged(file);
+        }
+    }
+
+    private static void deleteStaged(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Unable to delete staged upload {}", file, e);
+        }
+    }
 
-            // Put object into the S3 bucket
-            PutObjectResponse response = s3Client.putObject(putObjectRequest, RequestBody.fromInputStream(inputStream, contentLength));
+    // Parts are memory-mapped from the staged file and sent concurrently over the shared client. The
+    // unsafe body reads the mapping in place instead of copying each part onto the heap; the mapping
+    // is read-only and nothing else writes the staged file, so it cannot change underneath the upload
+    private void uploadMultipart(String key, String contentType, Path file, long contentLength) throws IOException {
+        String uploadId = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .contentType(contentType)
+                .build()).join().uploadId();
 
-            // Return the public URL of the uploaded image
-            return "https://" + bucketName + ".s3.amazonaws.com/" + s3Filename;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<CompletableFuture<CompletedPart>> parts = new ArrayList<>();
+            int partNumber = 1;
+            for (long position = 0; position < contentLength; position += PART_SIZE, partNumber++) {
+                long size = Math.min(PART_SIZE, contentLength - position);
+                MappedByteBuffer part = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+                int number = partNumber;
+                UploadPartRequest uploadPartRequest = UploadPartRequest.builder()
+                        .bucket(bucketName)
+                        .key(key)
+                        .uploadId(uploadId)
+                        .partNumber(number)
+                        .contentLength(size)
+                        .build();
+                parts.add(s3Client.uploadPart(uploadPartRequest, AsyncRequestBody.fromByteBufferUnsafe(part))
+                        .thenApply(response -> CompletedPart.builder().partNumber(number).eTag(response.eTag()).build()));
+            }
 
-        } catch (S3Exception e) {
-            e.printStackTrace();
-            throw new CustomException("Unable to upload image to S3 bucket: " + e.awsErrorDetails().errorMessage());
-        } catch (Exception e) {
-            e.printStackTrace();
-            throw new CustomException("Unable to upload image to S3 bucket");
+            List<CompletedPart> completedParts = parts.stream().map(CompletableFuture::join).toList();
+            s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(completedParts).build())
+                    .build()).join();
+        } catch (RuntimeException | IOException e) {
+            s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .build());
+            throw e;
         }
     }
 }
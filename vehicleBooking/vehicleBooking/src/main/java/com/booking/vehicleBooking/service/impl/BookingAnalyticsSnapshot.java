@@ -0,0 +1,194 @@
+package com.booking.vehicleBooking.service.impl;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import com.booking.vehicleBooking.repo.BookingRepository;
+
+//Column-per-field copy of the bookings table for analytics: epoch days as ints, ids and cents as
+//longs, ordered by booking id. A refresh only reads bookings above the highest id already loaded,
+//and cancellations are kept as tombstones instead of rewriting the arrays.
+@Component
+public class BookingAnalyticsSnapshot {
+
+	public static final int UNKNOWN_DAY = Integer.MIN_VALUE;
+
+	private static final int REFRESH_BATCH_SIZE = 5000;
+	//an id skipped by a refresh may belong to a transaction that commits later, it is looked up
+	//again on the following refreshes until this long has passed
+	private static final long GAP_RETRY_MILLIS = 5 * 60 * 1000;
+	private static final int MAX_TRACKED_GAPS = 10_000;
+	private static final int MAX_GAP_WIDTH = 1000;
+	private static final int GAP_QUERY_SIZE = 1000;
+
+	@Autowired
+	private BookingRepository bookingRepository;
+
+	@Autowired
+	private PricingEngine pricingEngine;
+
+	private long[] bookingIds = new long[1024];
+	private long[] vehicleIds = new long[1024];
+	private int[] checkInDays = new int[1024];
+	private int[] checkOutDays = new int[1024];
+	private int[] createdDays = new int[1024];
+	private long[] revenueCents = new long[1024];
+	private boolean[] cancelled = new boolean[1024];
+	private int size = 0;
+
+	private final Map<Long, Long> gapFirstSeenMillis = new LinkedHashMap<>();
+	private final Queue<Long> pendingCancellations = new ConcurrentLinkedQueue<>();
+
+	//Rows below size are never moved in place: appends write past size and an out-of-order insert
+	//copies into new arrays, so an aggregation can keep reading the arrays it was handed.
+	public record Columns(int size, long[] bookingIds, long[] vehicleIds, int[] checkInDays, int[] checkOutDays,
+			int[] createdDays, long[] revenueCents, boolean[] cancelled) {}
+
+	public synchronized Columns refresh() {
+		long lastBookingId = size == 0 ? 0 : bookingIds[size - 1];
+		List<Object[]> rows;
+		do {
+			rows = bookingRepository.findAnalyticsRowsAfter(lastBookingId, Limit.of(REFRESH_BATCH_SIZE));
+			for (Object[] row : rows) {
+				long bookingId = (Long) row[0];
+				trackGaps(lastBookingId, bookingId);
+				append(row);
+				lastBookingId = bookingId;
+			}
+		} while (rows.size() == REFRESH_BATCH_SIZE);
+
+		retryGaps();
+		applyCancellations();
+		return new Columns(size, bookingIds, vehicleIds, checkInDays, checkOutDays, createdDays, revenueCents, cancelled);
+	}
+
+	//never blocks the caller, the tombstone is set on the next refresh
+	public void markCancelled(Long bookingId) {
+		if (bookingId != null) pendingCancellations.add(bookingId);
+	}
+
+	private void trackGaps(long previousId, long bookingId) {
+		if (previousId == 0 || bookingId - previousId > MAX_GAP_WIDTH) return;
+		long now = System.currentTimeMillis();
+		for (long missing = previousId + 1; missing < bookingId && gapFirstSeenMillis.size() < MAX_TRACKED_GAPS; missing++) {
+			gapFirstSeenMillis.putIfAbsent(missing, now);
+		}
+	}
+
+	private void retryGaps() {
+		long expired = System.currentTimeMillis() - GAP_RETRY_MILLIS;
+		gapFirstSeenMillis.values().removeIf(firstSeen -> firstSeen < expired);
+		List<Long> gapIds = new ArrayList<>(gapFirstSeenMillis.keySet());
+		for (int from = 0; from < gapIds.size(); from += GAP_QUERY_SIZE) {
+			List<Long> chunk = gapIds.subList(from, Math.min(from + GAP_QUERY_SIZE, gapIds.size()));
+			for (Object[] row : bookingRepository.findAnalyticsRowsByIds(chunk)) {
+				if (gapFirstSeenMillis.remove((Long) row[0]) != null) {
+					insertInOrder(row);
+				}
+			}
+		}
+	}
+
+	private void applyCancellations() {
+		for (Iterator<Long> it = pendingCancellations.iterator(); it.hasNext();) {
+			int index = Arrays.binarySearch(bookingIds, 0, size, it.next());
+			if (index >= 0) {
+				cancelled[index] = true;
+			}
+			it.remove();
+		}
+	}
+
+	private void append(Object[] row) {
+		if (size == bookingIds.length) {
+			resize(size * 2);
+		}
+		write(size++, row);
+	}
+
+	//a late-committed booking lands between rows already loaded; this is rare, so it simply
+	//copies every column into new arrays
+	private void insertInOrder(Object[] row) {
+		int index = -Arrays.binarySearch(bookingIds, 0, size, (Long) row[0]) - 1;
+		if (index < 0) return;
+		if (index == size) {
+			append(row);
+			return;
+		}
+		int capacity = size == bookingIds.length ? size * 2 : bookingIds.length;
+		bookingIds = spread(bookingIds, index, capacity);
+		vehicleIds = spread(vehicleIds, index, capacity);
+		checkInDays = spread(checkInDays, index, capacity);
+		checkOutDays = spread(checkOutDays, index, capacity);
+		createdDays = spread(createdDays, index, capacity);
+		revenueCents = spread(revenueCents, index, capacity);
+		cancelled = spread(cancelled, index, capacity);
+		size++;
+		write(index, row);
+	}
+
+	private void write(int index, Object[] row) {
+		Long vehicleId = (Long) row[1];
+		LocalDate checkInDate = (LocalDate) row[2];
+		LocalDate checkOutDate = (LocalDate) row[3];
+		int numOfMiles = (Integer) row[4];
+		LocalDateTime createdAt = (LocalDateTime) row[5];
+		Long totalPriceCents = (Long) row[6];
+
+		bookingIds[index] = (Long) row[0];
+		vehicleIds[index] = vehicleId == null ? 0 : vehicleId;
+		checkInDays[index] = (int) checkInDate.toEpochDay();
+		checkOutDays[index] = (int) checkOutDate.toEpochDay();
+		createdDays[index] = createdAt == null ? UNKNOWN_DAY : (int) createdAt.toLocalDate().toEpochDay();
+		cancelled[index] = false;
+
+		//the price quoted when the booking was made; bookings from before that was stored are
+		//estimated once, at the rates in force when they are first loaded
+		Long estimatedCents = totalPriceCents != null || vehicleId == null ? null
+				: pricingEngine.totalCents(vehicleId, checkInDate, checkOutDate, numOfMiles);
+		revenueCents[index] = totalPriceCents != null ? totalPriceCents : estimatedCents == null ? 0 : estimatedCents;
+	}
+
+	private void resize(int capacity) {
+		bookingIds = Arrays.copyOf(bookingIds, capacity);
+		vehicleIds = Arrays.copyOf(vehicleIds, capacity);
+		checkInDays = Arrays.copyOf(checkInDays, capacity);
+		checkOutDays = Arrays.copyOf(checkOutDays, capacity);
+		createdDays = Arrays.copyOf(createdDays, capacity);
+		revenueCents = Arrays.copyOf(revenueCents, capacity);
+		cancelled = Arrays.copyOf(cancelled, capacity);
+	}
+
+	private long[] spread(long[] column, int index, int capacity) {
+		long[] copy = new long[capacity];
+		System.arraycopy(column, 0, copy, 0, index);
+		System.arraycopy(column, index, copy, index + 1, size - index);
+		return copy;
+	}
+
+	private int[] spread(int[] column, int index, int capacity) {
+		int[] copy = new int[capacity];
+		System.arraycopy(column, 0, copy, 0, index);
+		System.arraycopy(column, index, copy, index + 1, size - index);
+		return copy;
+	}
+
+	private boolean[] spread(boolean[] column, int index, int capacity) {
+		boolean[] copy = new boolean[capacity];
+		System.arraycopy(column, 0, copy, 0, index);
+		System.arraycopy(column, index, copy, index + 1, size - index);
+		return copy;
+	}
+}
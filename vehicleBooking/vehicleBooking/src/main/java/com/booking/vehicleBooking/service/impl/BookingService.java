@@ -1,13 +1,35 @@
 package com.booking.vehicleBooking.service.impl;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.booking.vehicleBooking.dto.BookingDTO;
+import com.booking.vehicleBooking.dto.BookingRequest;
+import com.booking.vehicleBooking.dto.DomainEvent;
 import com.booking.vehicleBooking.dto.Response;
+import com.booking.vehicleBooking.dto.VehicleDTO;
 import com.booking.vehicleBooking.entity.Booking;
 import com.booking.vehicleBooking.entity.User;
 import com.booking.vehicleBooking.entity.Vehicle;
@@ -18,10 +40,22 @@ import com.booking.vehicleBooking.repo.VehicleRepository;
 import com.booking.vehicleBooking.service.interfac.IBookingService;
 import com.booking.vehicleBooking.service.interfac.IVehicleService;
 import com.booking.vehicleBooking.utils.Utils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 
 @Service
 public class BookingService implements IBookingService{
 
+	private static final int CONFIRMATION_CODE_LENGTH = 10;
+	private static final int MAX_CONFIRMATION_CODE_ATTEMPTS = 5;
+	private static final int MAX_BATCH_BOOKINGS = 100;
+	
+	private static final String INSERT_BOOKING = "INSERT INTO bookings (check_in_date, check_out_date, num_of_passengers, num_of_miles, "
+			+ "booking_confirmation_code, user_id, vehicle_id, created_at, total_price_cents) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+	
 	@Autowired
 	private BookingRepository bookingRepository;
 	
@@ -34,6 +68,39 @@ public class BookingService implements IBookingService{
 	@Autowired
 	private UserRepository userRepository;
 	
+	@Autowired
+	private VehicleAvailabilityIndex vehicleAvailabilityIndex;
+	
+	@Autowired
+	private BookingAnalyticsSnapshot bookingAnalyticsSnapshot;
+	
+	@Autowired
+	private PricingEngine pricingEngine;
+	
+	@Autowired
+	private OutboxService outboxService;
+	
+	@Autowired
+	private VehicleBookingLocks vehicleBookingLocks;
+	
+	@Autowired
+	private VehicleVersions vehicleVersions;
+	
+	@Autowired
+	private MeterRegistry meterRegistry;
+	
+	@Autowired
+	private ObjectMapper objectMapper;
+	
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+	
+	@PersistenceContext
+	private EntityManager entityManager;
+	
 	
 	@Override
 	 public Response saveBooking(Long vehicleId, Long userId, Booking bookingRequest) {
@@ -41,26 +108,141 @@ public class BookingService implements IBookingService{
         Response response = new Response();
 
         try {
-            if (bookingRequest.getCheckOutDate().isBefore(bookingRequest.getCheckInDate())) {
-                throw new IllegalArgumentException("Check in date must come after check out date");
+            if (!bookingRequest.getCheckOutDate().isAfter(bookingRequest.getCheckInDate())) {
+                throw new IllegalArgumentException("Check out date must come after check in date");
             }
-            Vehicle vehicle = vehicleRepository.findById(vehicleId).orElseThrow(() -> new CustomException("Vehicle Not Found"));
             User user = userRepository.findById(userId).orElseThrow(() -> new CustomException("User Not Found"));
+            String bookingConfirmationCode;
+
+            //check and insert must not interleave with another booking for the same vehicle
+            Lock vehicleLock = vehicleBookingLocks.lockFor(vehicleId);
+            vehicleLock.lock();
+            try {
+                Vehicle vehicle = vehicleRepository.findById(vehicleId).orElseThrow(() -> new CustomException("Vehicle Not Found"));
+
+                if (bookingRepository.existsOverlappingBooking(vehicleId, bookingRequest.getCheckInDate(), bookingRequest.getCheckOutDate())) {
+                    meterRegistry.counter("vehicle.booking.conflicts").increment();
+                    throw new CustomException("Vehicle not Available for selected date range");
+                }
+
+                bookingRequest.setVehicle(vehicle);
+                bookingRequest.setUser(user);
+                bookingConfirmationCode = generateUniqueConfirmationCode();
+                bookingRequest.setBookingConfirmationCode(bookingConfirmationCode);
+                bookingRequest.setCreatedAt(LocalDateTime.now());
+                if (vehicle.getVehiclePrice() != null && pricingEngine.dailyRateCents(vehicleId) == null) {
+                    pricingEngine.putVehicle(vehicleId, vehicle.getVehiclePrice());
+                }
+                bookingRequest.setTotalPriceCents(pricingEngine.totalCents(vehicleId, bookingRequest.getCheckInDate(),
+                        bookingRequest.getCheckOutDate(), bookingRequest.getNumOfMiles()));
+                Booking savedBooking = transactionTemplate.execute(status -> {
+                    Booking saved = bookingRepository.save(bookingRequest);
+                    outboxService.append(DomainEvent.BOOKING_CREATED, saved.getId(), OutboxService.payload(
+                            "bookingId", saved.getId(), "vehicleId", vehicleId, "userId", userId,
+                            "checkInDate", saved.getCheckInDate(), "checkOutDate", saved.getCheckOutDate(),
+                            "bookingConfirmationCode", saved.getBookingConfirmationCode()));
+                    return saved;
+                });
+                vehicleAvailabilityIndex.addBooking(savedBooking.getId(), vehicleId, savedBooking.getCheckInDate(), savedBooking.getCheckOutDate());
+                vehicleVersions.bump(vehicleId);
+            } finally {
+                vehicleLock.unlock();
+            }
+            response.setStatusCode(200);
+            response.setMessage("successful");
+            response.setBookingConfirmationCode(bookingConfirmationCode);
+
+        } catch (CustomException e) {
+            response.setStatusCode(404);
+            response.setMessage(e.getMessage());
 
-            List<Booking> existingBookings = vehicle.getBookings();
+        } catch (Exception e) {
+            response.setStatusCode(500);
+            response.setMessage("Error Saving a booking: " + e.getMessage());
 
-            if (!vehicleIsAvailable(bookingRequest, existingBookings)) {
-                throw new CustomException("Vehicle not Available for selected date range");
+        }
+        return response;
+    }
+
+	//All or nothing: every vehicle is checked with one range query under its lock, and the
+	//bookings are written as one JDBC batch in a single transaction
+	@Override
+	public Response saveBookings(Long userId, List<BookingRequest> bookingRequests) {
+
+        Response response = new Response();
+
+        try {
+            validateBatch(bookingRequests);
+            if (!userRepository.existsById(userId)) {
+                throw new CustomException("User Not Found");
             }
 
-            bookingRequest.setVehicle(vehicle);
-            bookingRequest.setUser(user);
-            String bookingConfirmationCode = Utils.generateRandomConfirmationCode(10);
-            bookingRequest.setBookingConfirmationCode(bookingConfirmationCode);
-            bookingRepository.save(bookingRequest);
+            Set<Long> vehicleIds = new HashSet<>();
+            LocalDate from = LocalDate.MAX;
+            LocalDate to = LocalDate.MIN;
+            for (BookingRequest request : bookingRequests) {
+                vehicleIds.add(request.getVehicleId());
+                if (request.getCheckInDate().isBefore(from)) from = request.getCheckInDate();
+                if (request.getCheckOutDate().isAfter(to)) to = request.getCheckOutDate();
+            }
+
+            List<Lock> vehicleLocks = vehicleBookingLocks.locksFor(vehicleIds);
+            vehicleLocks.forEach(Lock::lock);
+            List<BookingDTO> bookedList;
+            List<Long> bookingIds;
+            try {
+                Set<Long> missing = new HashSet<>(vehicleIds);
+                vehicleRepository.findExistingIds(vehicleIds).forEach(missing::remove);
+                if (!missing.isEmpty()) {
+                    throw new CustomException("Vehicle Not Found: " + missing);
+                }
+
+                Map<Long, List<LocalDate[]>> bookedRanges = new HashMap<>();
+                for (Object[] row : bookingRepository.findBookingRangesOverlapping(vehicleIds, from, to)) {
+                    bookedRanges.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add(new LocalDate[] {(LocalDate) row[1], (LocalDate) row[2]});
+                }
+                for (BookingRequest request : bookingRequests) {
+                    for (LocalDate[] range : bookedRanges.getOrDefault(request.getVehicleId(), List.of())) {
+                        if (range[0].isBefore(request.getCheckOutDate()) && range[1].isAfter(request.getCheckInDate())) {
+                            meterRegistry.counter("vehicle.booking.conflicts").increment();
+                            throw new CustomException("Vehicle not Available for selected date range: vehicle " + request.getVehicleId());
+                        }
+                    }
+                }
+
+                List<String> codes = generateUniqueConfirmationCodes(bookingRequests.size());
+                bookingIds = transactionTemplate.execute(status -> {
+                    List<Long> insertedIds = insertBookings(userId, bookingRequests, codes);
+                    for (int i = 0; i < bookingRequests.size(); i++) {
+                        BookingRequest request = bookingRequests.get(i);
+                        outboxService.append(DomainEvent.BOOKING_CREATED, insertedIds.get(i), OutboxService.payload(
+                                "bookingId", insertedIds.get(i), "vehicleId", request.getVehicleId(), "userId", userId,
+                                "checkInDate", request.getCheckInDate(), "checkOutDate", request.getCheckOutDate(),
+                                "bookingConfirmationCode", codes.get(i)));
+                    }
+                    return insertedIds;
+                });
+
+                bookedList = new ArrayList<>(bookingRequests.size());
+                for (int i = 0; i < bookingRequests.size(); i++) {
+                    BookingRequest request = bookingRequests.get(i);
+                    vehicleAvailabilityIndex.addBooking(bookingIds.get(i), request.getVehicleId(), request.getCheckInDate(), request.getCheckOutDate());
+                    bookedList.add(toBookingDTO(bookingIds.get(i), request, codes.get(i)));
+                }
+            } finally {
+                for (int i = vehicleLocks.size() - 1; i >= 0; i--) {
+                    vehicleLocks.get(i).unlock();
+                }
+            }
+            vehicleIds.forEach(vehicleVersions::bump);
+
             response.setStatusCode(200);
             response.setMessage("successful");
-            response.setBookingConfirmationCode(bookingConfirmationCode);
+            response.setBookingList(bookedList);
+
+        } catch (IllegalArgumentException e) {
+            response.setStatusCode(400);
+            response.setMessage(e.getMessage());
 
         } catch (CustomException e) {
             response.setStatusCode(404);
@@ -68,12 +250,118 @@ public class BookingService implements IBookingService{
 
         } catch (Exception e) {
             response.setStatusCode(500);
-            response.setMessage("Error Saving a booking: " + e.getMessage());
+            response.setMessage("Error Saving bookings: " + e.getMessage());
 
         }
         return response;
     }
 
+	//same rules the Booking entity enforces on the single-booking path, plus no overlaps inside the batch
+	private void validateBatch(List<BookingRequest> bookingRequests) {
+		if (bookingRequests == null || bookingRequests.isEmpty()) {
+			throw new IllegalArgumentException("At least one booking is required");
+		}
+		if (bookingRequests.size() > MAX_BATCH_BOOKINGS) {
+			throw new IllegalArgumentException("At most " + MAX_BATCH_BOOKINGS + " bookings can be made at once");
+		}
+		LocalDate today = LocalDate.now();
+		for (BookingRequest request : bookingRequests) {
+			if (request.getVehicleId() == null || request.getCheckInDate() == null || request.getCheckOutDate() == null) {
+				throw new IllegalArgumentException("Every booking needs a vehicleId, checkInDate and checkOutDate");
+			}
+			if (!request.getCheckOutDate().isAfter(request.getCheckInDate())) {
+				throw new IllegalArgumentException("Check out date must come after check in date: vehicle " + request.getVehicleId());
+			}
+			if (!request.getCheckOutDate().isAfter(today)) {
+				throw new IllegalArgumentException("Check out date must be in the future: vehicle " + request.getVehicleId());
+			}
+			if (request.getNumOfPassengers() < 1) {
+				throw new IllegalArgumentException("Number of passenger must not be less than 1");
+			}
+			if (request.getNumOfMiles() < 0) {
+				throw new IllegalArgumentException("Number of miles traveling must not be less than 0");
+			}
+		}
+		for (int i = 0; i < bookingRequests.size(); i++) {
+			BookingRequest first = bookingRequests.get(i);
+			for (int j = i + 1; j < bookingRequests.size(); j++) {
+				BookingRequest second = bookingRequests.get(j);
+				if (first.getVehicleId().equals(second.getVehicleId())
+						&& first.getCheckInDate().isBefore(second.getCheckOutDate())
+						&& first.getCheckOutDate().isAfter(second.getCheckInDate())) {
+					throw new IllegalArgumentException("Overlapping bookings for vehicle " + first.getVehicleId() + " in the same request");
+				}
+			}
+		}
+	}
+
+	//one IN query checks the whole set, only colliding codes are drawn again
+	private List<String> generateUniqueConfirmationCodes(int count) {
+		Set<String> codes = new LinkedHashSet<>();
+		for (int attempt = 0; attempt < MAX_CONFIRMATION_CODE_ATTEMPTS && codes.size() < count; attempt++) {
+			while (codes.size() < count) {
+				codes.add(Utils.generateRandomConfirmationCode(CONFIRMATION_CODE_LENGTH));
+			}
+			bookingRepository.findExistingConfirmationCodes(codes).forEach(codes::remove);
+		}
+		if (codes.size() < count) {
+			throw new IllegalStateException("Unable to generate unique booking confirmation codes");
+		}
+		return new ArrayList<>(codes);
+	}
+
+	private List<Long> insertBookings(Long userId, List<BookingRequest> bookingRequests, List<String> codes) {
+		return jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+			try (PreparedStatement statement = connection.prepareStatement(INSERT_BOOKING, Statement.RETURN_GENERATED_KEYS)) {
+				LocalDateTime createdAt = LocalDateTime.now();
+				for (int i = 0; i < bookingRequests.size(); i++) {
+					BookingRequest request = bookingRequests.get(i);
+					statement.setObject(1, request.getCheckInDate());
+					statement.setObject(2, request.getCheckOutDate());
+					statement.setInt(3, request.getNumOfPassengers());
+					statement.setInt(4, request.getNumOfMiles());
+					statement.setString(5, codes.get(i));
+					statement.setLong(6, userId);
+					statement.setLong(7, request.getVehicleId());
+					statement.setObject(8, createdAt);
+					Long totalPriceCents = pricingEngine.totalCents(request.getVehicleId(), request.getCheckInDate(),
+							request.getCheckOutDate(), request.getNumOfMiles());
+					if (totalPriceCents == null) {
+						statement.setNull(9, Types.BIGINT);
+					} else {
+						statement.setLong(9, totalPriceCents);
+					}
+					statement.addBatch();
+				}
+				statement.executeBatch();
+				List<Long> ids = new ArrayList<>(bookingRequests.size());
+				try (ResultSet keys = statement.getGeneratedKeys()) {
+					while (keys.next()) {
+						ids.add(keys.getLong(1));
+					}
+				}
+				if (ids.size() != bookingRequests.size()) {
+					throw new IllegalStateException("Expected " + bookingRequests.size() + " generated ids, got " + ids.size());
+				}
+				return ids;
+			}
+		});
+	}
+
+	private static BookingDTO toBookingDTO(Long bookingId, BookingRequest request, String code) {
+		BookingDTO bookingDTO = new BookingDTO();
+		bookingDTO.setId(bookingId);
+		bookingDTO.setCheckInDate(request.getCheckInDate());
+		bookingDTO.setCheckOutDate(request.getCheckOutDate());
+		bookingDTO.setNumOfPassengers(request.getNumOfPassengers());
+		bookingDTO.setNumOfMiles(request.getNumOfMiles());
+		bookingDTO.setBookingConfirmationCode(code);
+		VehicleDTO vehicleDTO = new VehicleDTO();
+		vehicleDTO.setId(request.getVehicleId());
+		bookingDTO.setVehicle(vehicleDTO);
+		return bookingDTO;
+	}
+
 	   @Override
 	    public Response findBookingByConfirmationCode(String confirmationCode) {
 
@@ -120,14 +408,79 @@ public class BookingService implements IBookingService{
 		return response;
 	}
 
+	@Override
+	public Response getAllBookings(Long lastSeenId, int size) {
+		
+		Response response = new Response();
+		
+		try {
+			int pageSize = Utils.clampPageSize(size);
+			List<Booking> bookingList = bookingRepository.findByIdLessThanOrderByIdDesc(lastSeenId == null ? Long.MAX_VALUE : lastSeenId, Limit.of(pageSize));
+			List<BookingDTO> bookingDTOList = Utils.mapBookingListEntityToBookingListDTO(bookingList);
+			
+			response.setStatusCode(200);
+			response.setMessage("Success");
+			response.setBookingList(bookingDTOList);
+			if (bookingList.size() == pageSize) {
+				response.setLastSeenId(bookingList.get(bookingList.size() - 1).getId());
+			}
+			
+		}catch (Exception e) {
+			response.setStatusCode(500);
+			response.setMessage("Error getting all bookings" + e.getMessage());
+		} 
+
+		return response;
+	}
+	
+	//Writes one BookingDTO per line, a keyset page at a time, so memory does not grow with the table
+	@Override
+	public void streamAllBookings(OutputStream outputStream) throws IOException {
+		long lastSeenId = Long.MAX_VALUE;
+		List<Booking> page;
+		do {
+			page = bookingRepository.findByIdLessThanOrderByIdDesc(lastSeenId, Limit.of(Utils.STREAM_BATCH_SIZE));
+			for (Booking booking : page) {
+				outputStream.write(objectMapper.writeValueAsBytes(Utils.mapBookingEntityToBookingDTO(booking)));
+				outputStream.write('\n');
+			}
+			if (!page.isEmpty()) {
+				lastSeenId = page.get(page.size() - 1).getId();
+			}
+			entityManager.clear();
+			outputStream.flush();
+		} while (page.size() == Utils.STREAM_BATCH_SIZE);
+	}
+
+	//an indexed point lookup per attempt, with 36^10 possible codes a second attempt is practically never needed
+	private String generateUniqueConfirmationCode() {
+		for (int attempt = 0; attempt < MAX_CONFIRMATION_CODE_ATTEMPTS; attempt++) {
+			String code = Utils.generateRandomConfirmationCode(CONFIRMATION_CODE_LENGTH);
+			if (!bookingRepository.existsByBookingConfirmationCode(code)) {
+				return code;
+			}
+		}
+		throw new IllegalStateException("Unable to generate a unique booking confirmation code");
+	}
+
 	@Override
 	 public Response cancelBooking(Long bookingId) {
 
         Response response = new Response();
 
         try {
-            bookingRepository.findById(bookingId).orElseThrow(() -> new CustomException("Booking Does Not Exist"));
-            bookingRepository.deleteById(bookingId);
+            Booking booking = bookingRepository.findById(bookingId).orElseThrow(() -> new CustomException("Booking Does Not Exist"));
+            transactionTemplate.executeWithoutResult(status -> {
+                bookingRepository.deleteById(bookingId);
+                outboxService.append(DomainEvent.BOOKING_CANCELLED, bookingId, OutboxService.payload(
+                        "bookingId", bookingId, "vehicleId", booking.getVehicle() == null ? null : booking.getVehicle().getId(),
+                        "bookingConfirmationCode", booking.getBookingConfirmationCode()));
+            });
+            if (booking.getVehicle() != null) {
+                vehicleAvailabilityIndex.removeBooking(bookingId, booking.getVehicle().getId());
+                bookingAnalyticsSnapshot.markCancelled(bookingId);
+                vehicleVersions.bump(booking.getVehicle().getId());
+            }
             response.setStatusCode(200);
             response.setMessage("successful");
 
@@ -142,29 +495,5 @@ public class BookingService implements IBookingService{
         }
         return response;
     }
-	
-	
-
-	private boolean vehicleIsAvailable(Booking bookingRequest, List<Booking> existingBookings) {
-		 return existingBookings.stream()
-	                .noneMatch(existingBooking ->
-	                        bookingRequest.getCheckInDate().equals(existingBooking.getCheckInDate())
-	                                || bookingRequest.getCheckOutDate().isBefore(existingBooking.getCheckOutDate())
-	                                || (bookingRequest.getCheckInDate().isAfter(existingBooking.getCheckInDate())
-	                                && bookingRequest.getCheckInDate().isBefore(existingBooking.getCheckOutDate()))
-	                                || (bookingRequest.getCheckInDate().isBefore(existingBooking.getCheckInDate())
-
-	                                && bookingRequest.getCheckOutDate().equals(existingBooking.getCheckOutDate()))
-	                                || (bookingRequest.getCheckInDate().isBefore(existingBooking.getCheckInDate())
-
-	                                && bookingRequest.getCheckOutDate().isAfter(existingBooking.getCheckOutDate()))
-
-	                                || (bookingRequest.getCheckInDate().equals(existingBooking.getCheckOutDate())
-	                                && bookingRequest.getCheckOutDate().equals(existingBooking.getCheckInDate()))
-
-	                                || (bookingRequest.getCheckInDate().equals(existingBooking.getCheckOutDate())
-	                                && bookingRequest.getCheckOutDate().equals(bookingRequest.getCheckInDate()))
-	                );
-	}
 
 }
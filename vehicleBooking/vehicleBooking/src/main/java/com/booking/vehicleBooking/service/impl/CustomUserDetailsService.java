@@ -1,6 +1,9 @@
 package com.booking.vehicleBooking.service.impl;
 
+import java.time.Duration;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -8,16 +11,46 @@ import org.springframework.stereotype.Service;
 
 import com.booking.vehicleBooking.exception.CustomException;
 import com.booking.vehicleBooking.repo.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 
 @Service
 public class CustomUserDetailsService implements UserDetailsService{
-	
+
+	private static final Duration CACHE_TTL = Duration.ofSeconds(60);
+	private static final int MAX_CACHED_USERS = 10_000;
+
 	@Autowired
 	private UserRepository userRepository;
-	
+
+	//Immutable copies of the username and authorities, never the entity: a cached entity would hold
+	//a closed session's lazy bookings and its password hash for as long as it is cached
+	private final Cache<String, UserDetails> userCache = Caffeine.newBuilder()
+			.maximumSize(MAX_CACHED_USERS)
+			.expireAfterWrite(CACHE_TTL)
+			.build();
+
 	@Override
 	public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
 		return userRepository.findByEmail(username).orElseThrow(()-> new CustomException("Username/Email not found."));
 	}
 
+	//Used by the JWT filter on every request. Login still goes through loadUserByUsername so
+	//passwords are always checked against the database.
+	public UserDetails loadCachedUserByUsername(String username) {
+		return userCache.get(username, key -> {
+			UserDetails user = loadUserByUsername(key);
+			return User.withUsername(user.getUsername())
+					.password("")
+					.authorities(user.getAuthorities())
+					.build();
+		});
+	}
+
+	//call whenever a user is created, changed (email, role) or deleted, so a cached copy never
+	//outlives the row it was read from
+	public void evictUser(String username) {
+		userCache.invalidate(username);
+	}
+
 }
@@ -0,0 +1,47 @@
+package com.booking.vehicleBooking.service.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.booking.vehicleBooking.dto.DomainEvent;
+import com.booking.vehicleBooking.service.interfac.IEventSink;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+//Local stand-in for a message queue: appends each batch to an NDJSON file and syncs it to disk
+//before the batch counts as delivered. Consumers tail the file and de-duplicate on eventId.
+@Component
+@ConditionalOnProperty(name = "outbox.file-sink.enabled", havingValue = "true")
+public class FileEventSink implements IEventSink {
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Value("${outbox.file-sink.path:outbox-events.ndjson}")
+	private String path;
+
+	@Override
+	public synchronized void publish(List<DomainEvent> events) throws IOException {
+		StringBuilder lines = new StringBuilder();
+		for (DomainEvent event : events) {
+			lines.append(objectMapper.writeValueAsString(event)).append('\n');
+		}
+		try (FileChannel channel = FileChannel.open(Path.of(path),
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+			ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			channel.force(false);
+		}
+	}
+}
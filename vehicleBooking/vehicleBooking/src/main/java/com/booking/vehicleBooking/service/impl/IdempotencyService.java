@@ -0,0 +1,194 @@
+package com.booking.vehicleBooking.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.booking.vehicleBooking.dto.Response;
+import com.booking.vehicleBooking.entity.IdempotencyRecord;
+import com.booking.vehicleBooking.repo.IdempotencyRecordRepository;
+import com.booking.vehicleBooking.service.interfac.IIdempotencyService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PostConstruct;
+
+//Runs a request at most once per Idempotency-Key. Finished responses are kept in a bounded cache in
+//front of the idempotency_records table, so a retry is one cache lookup on this instance and one
+//primary-key read anywhere else. A key is claimed with an INSERT before the request runs, which
+//keeps two instances from running the same request at once. A claim that never completed is not
+//taken over: the request may have run and only the completion failed, so retries get a 409 until
+//the claim is older than the TTL.
+@Service
+public class IdempotencyService implements IIdempotencyService {
+
+	public static final int MAX_KEY_LENGTH = 100;
+
+	private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+	@Autowired
+	private IdempotencyRecordRepository idempotencyRecordRepository;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Value("${idempotency.ttl-hours:24}")
+	private long ttlHours;
+
+	@Value("${idempotency.cache-size:10000}")
+	private int cacheSize;
+
+	private Cache<String, StoredResponse> completed;
+	private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+	//entries loaded from the table are older than their time in the cache, so hits still check createdAt
+	@PostConstruct
+	void createCache() {
+		completed = Caffeine.newBuilder()
+				.maximumSize(cacheSize)
+				.expireAfterWrite(Duration.ofHours(ttlHours))
+				.build();
+	}
+
+	private record StoredResponse(String requestFingerprint, Response response, LocalDateTime createdAt) {}
+
+	@Override
+	public IdempotentResponse execute(String idempotencyKey, String requestFingerprint, Supplier<Response> request) {
+		StoredResponse stored = completed.getIfPresent(idempotencyKey);
+		if (stored != null && isExpired(stored.createdAt())) {
+			completed.invalidate(idempotencyKey);
+			stored = null;
+		}
+		if (stored != null) {
+			return replay(stored, requestFingerprint);
+		}
+		if (!inFlight.add(idempotencyKey)) {
+			return rejected(409, "A request with this Idempotency-Key is still being processed");
+		}
+		try {
+			LocalDateTime claimedAt = LocalDateTime.now();
+			if (!claim(idempotencyKey, requestFingerprint, claimedAt)) {
+				IdempotentResponse existing = resolveExistingClaim(idempotencyKey, requestFingerprint);
+				if (existing != null) {
+					return existing;
+				}
+				//the expired record was removed, another caller may have claimed the key since
+				if (!claim(idempotencyKey, requestFingerprint, claimedAt)) {
+					return rejected(409, "A request with this Idempotency-Key is still being processed");
+				}
+			}
+
+			Response response;
+			try {
+				response = request.get();
+			} catch (RuntimeException e) {
+				idempotencyRecordRepository.deleteById(idempotencyKey);
+				throw e;
+			}
+			//a server error is not an answer to keep, the key is released so a retry runs again
+			if (response.getStatusCode() >= 500) {
+				idempotencyRecordRepository.deleteById(idempotencyKey);
+				return new IdempotentResponse(response, false);
+			}
+			//the request has run, so the claim is kept whatever happens: releasing it would let a retry run it again
+			completed.put(idempotencyKey, new StoredResponse(requestFingerprint, response, claimedAt));
+			try {
+				idempotencyRecordRepository.complete(idempotencyKey, response.getStatusCode(), objectMapper.writeValueAsString(response));
+			} catch (RuntimeException | JsonProcessingException e) {
+				log.error("Unable to store the response for Idempotency-Key {}, other instances answer 409 until it expires", idempotencyKey, e);
+			}
+			return new IdempotentResponse(response, false);
+
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Unable to read the stored response for an Idempotency-Key", e);
+		} finally {
+			inFlight.remove(idempotencyKey);
+		}
+	}
+
+	//false when the key is already claimed
+	private boolean claim(String idempotencyKey, String requestFingerprint, LocalDateTime claimedAt) {
+		try {
+			idempotencyRecordRepository.claim(idempotencyKey, requestFingerprint, claimedAt);
+			return true;
+		} catch (DataIntegrityViolationException e) {
+			return false;
+		}
+	}
+
+	//null when the record had expired and was removed, so the key can be claimed again
+	private IdempotentResponse resolveExistingClaim(String idempotencyKey, String requestFingerprint) throws JsonProcessingException {
+		IdempotencyRecord record = idempotencyRecordRepository.findById(idempotencyKey).orElse(null);
+		if (record == null) {
+			return rejected(409, "A request with this Idempotency-Key is still being processed");
+		}
+		//not purged yet, but as good as gone
+		if (isExpired(record.getCreatedAt())) {
+			idempotencyRecordRepository.deleteExpired(idempotencyKey, record.getCreatedAt());
+			return null;
+		}
+		if (!record.getRequestFingerprint().equals(requestFingerprint)) {
+			return rejected(422, "Idempotency-Key was already used with a different request");
+		}
+		if (record.getStatusCode() != null) {
+			StoredResponse stored = new StoredResponse(record.getRequestFingerprint(),
+					objectMapper.readValue(record.getResponseBody(), Response.class), record.getCreatedAt());
+			completed.put(idempotencyKey, stored);
+			return new IdempotentResponse(stored.response(), true);
+		}
+		return rejected(409, "A request with this Idempotency-Key is still being processed");
+	}
+
+	private boolean isExpired(LocalDateTime createdAt) {
+		return createdAt.isBefore(LocalDateTime.now().minusHours(ttlHours));
+	}
+
+	private static IdempotentResponse replay(StoredResponse stored, String requestFingerprint) {
+		if (!stored.requestFingerprint().equals(requestFingerprint)) {
+			return rejected(422, "Idempotency-Key was already used with a different request");
+		}
+		return new IdempotentResponse(stored.response(), true);
+	}
+
+	private static IdempotentResponse rejected(int statusCode, String message) {
+		Response response = new Response();
+		response.setStatusCode(statusCode);
+		response.setMessage(message);
+		return new IdempotentResponse(response, false);
+	}
+
+	//SHA-256 over the parts that make two requests the same request
+	public static String fingerprint(Object... parts) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			for (Object part : parts) {
+				digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+				digest.update((byte) 0);
+			}
+			return HexFormat.of().formatHex(digest.digest());
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@Scheduled(cron = "${idempotency.purge-cron:0 37 * * * *}")
+	public void purgeExpired() {
+		idempotencyRecordRepository.deleteCreatedBefore(LocalDateTime.now().minusHours(ttlHours));
+	}
+}
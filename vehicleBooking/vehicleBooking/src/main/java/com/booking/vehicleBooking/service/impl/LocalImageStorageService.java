@@ -0,0 +1,114 @@
+package com.booking.vehicleBooking.service.impl;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.booking.vehicleBooking.exception.CustomException;
+import com.booking.vehicleBooking.service.interfac.IImageServingService;
+import com.booking.vehicleBooking.service.interfac.IImageStorageService;
+
+import jakarta.annotation.PostConstruct;
+
+//Stores photos on local disk and serves them through /vehicles/photo/{id}, for on-prem and test deployments
+@Service
+@ConditionalOnProperty(name = "image.storage", havingValue = "local")
+public class LocalImageStorageService implements IImageStorageService, IImageServingService {
+
+	private static final long TRANSFER_CHUNK = 8L * 1024 * 1024;
+
+	@Value("${image.storage.local.dir:vehicle-images}")
+	private String directory;
+
+	@Value("${image.storage.local.base-url:http://localhost:4040/vehicles/photo/}")
+	private String baseUrl;
+
+	private Path root;
+
+	@PostConstruct
+	void init() throws IOException {
+		root = Paths.get(directory).toAbsolutePath().normalize();
+		Files.createDirectories(root);
+	}
+
+	@Override
+	public String saveImage(String key, Path file, String contentType) {
+		Path target = resolve(key);
+
+		try {
+			//write next to the target and move it in place so a half-written file is never served
+			Path staged = Files.createTempFile(root, "upload-", ".tmp");
+			try (FileChannel source = FileChannel.open(file, StandardOpenOption.READ);
+				 FileChannel out = FileChannel.open(staged, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+				long size = source.size();
+				long position = 0;
+				while (position < size) {
+					position += out.transferFrom(source, position, Math.min(TRANSFER_CHUNK, size - position));
+				}
+			} catch (IOException e) {
+				Files.deleteIfExists(staged);
+				throw e;
+			}
+			Files.move(staged, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			e.printStackTrace();
+			throw new CustomException("Unable to store image");
+		}
+		return imageUrl(key);
+	}
+
+	@Override
+	public boolean imageExists(String key) {
+		return Files.isRegularFile(resolve(key));
+	}
+
+	@Override
+	public String imageUrl(String key) {
+		return baseUrl + resolve(key).getFileName();
+	}
+
+	@Override
+	public long imageSize(String key) {
+		try {
+			Path file = resolve(key);
+			return Files.isRegularFile(file) ? Files.size(file) : -1;
+		} catch (CustomException | IOException e) {
+			return -1;
+		}
+	}
+
+	//FileChannel.transferTo hands the copy to the OS where the target allows it, nothing is buffered on the heap
+	@Override
+	public long transferImage(String key, WritableByteChannel target) throws IOException {
+		try (FileChannel in = FileChannel.open(resolve(key), StandardOpenOption.READ)) {
+			long size = in.size();
+			long position = 0;
+			while (position < size) {
+				position += in.transferTo(position, size - position, target);
+			}
+			return size;
+		}
+	}
+
+	//keys are bare file names inside the storage directory
+	private Path resolve(String key) {
+		if (key == null || key.isBlank()) {
+			throw new CustomException("Image name is required");
+		}
+		Path file = root.resolve(Paths.get(key).getFileName().toString()).normalize();
+		if (!file.getParent().equals(root)) {
+			throw new CustomException("Invalid image name");
+		}
+		return file;
+	}
+}
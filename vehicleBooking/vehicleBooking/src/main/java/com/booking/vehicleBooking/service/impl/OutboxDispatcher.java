@@ -0,0 +1,132 @@
+package com.booking.vehicleBooking.service.impl;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.booking.vehicleBooking.dto.DomainEvent;
+import com.booking.vehicleBooking.entity.OutboxEvent;
+import com.booking.vehicleBooking.repo.OutboxEventRepository;
+import com.booking.vehicleBooking.service.interfac.IEventSink;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+//Moves outbox rows to every IEventSink in batches, oldest first. A batch is marked published only
+//after all sinks accepted it, so a failure or a crash in between sends it again: delivery is at
+//least once. A row committed late with a lower id is still unpublished and goes out in a later batch.
+//When a batch fails its events are sent one at a time to find the one that fails. That event's
+//attempts are counted and once they reach outbox.max-attempts it is parked, so one event the sinks
+//always reject cannot hold back every event behind it. Runs after a failure back off exponentially,
+//so a sink that is down for a while uses up few attempts.
+@Component
+public class OutboxDispatcher {
+
+	private static final Logger log = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+	@Autowired
+	private OutboxEventRepository outboxEventRepository;
+
+	@Autowired
+	private List<IEventSink> eventSinks;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${outbox.batch-size:100}")
+	private int batchSize;
+
+	@Value("${outbox.retention-hours:24}")
+	private long retentionHours;
+
+	@Value("${outbox.max-attempts:10}")
+	private int maxAttempts;
+
+	@Value("${outbox.dispatch-interval-ms:500}")
+	private long dispatchIntervalMs;
+
+	@Value("${outbox.max-backoff-ms:60000}")
+	private long maxBackoffMs;
+
+	//only touched by the scheduler thread
+	private int consecutiveFailures;
+	private long retryAtMillis;
+
+	@Scheduled(fixedDelayString = "${outbox.dispatch-interval-ms:500}")
+	public void dispatch() {
+		if (System.currentTimeMillis() < retryAtMillis) {
+			return;
+		}
+		List<OutboxEvent> batch;
+		do {
+			batch = outboxEventRepository.findByPublishedAtIsNullAndParkedAtIsNullOrderByIdAsc(Limit.of(batchSize));
+			if (batch.isEmpty()) {
+				break;
+			}
+			try {
+				publish(batch.stream().map(OutboxDispatcher::toDomainEvent).toList());
+			} catch (Exception e) {
+				meterRegistry.counter("vehicle.booking.outbox.failures").increment();
+				log.warn("Outbox delivery of {} events failed, sending them one at a time", batch.size(), e);
+				if (!dispatchOneAtATime(batch)) {
+					backOff();
+					return;
+				}
+				continue;
+			}
+			outboxEventRepository.markPublished(batch.stream().map(OutboxEvent::getId).toList(), LocalDateTime.now());
+			meterRegistry.counter("vehicle.booking.outbox.published").increment(batch.size());
+		} while (batch.size() == batchSize);
+		consecutiveFailures = 0;
+	}
+
+	//false when an event failed and still has attempts left, the rest of the batch then waits for the next run
+	private boolean dispatchOneAtATime(List<OutboxEvent> batch) {
+		for (OutboxEvent event : batch) {
+			try {
+				publish(List.of(toDomainEvent(event)));
+			} catch (Exception e) {
+				int attempts = event.getAttempts() + 1;
+				if (attempts < maxAttempts) {
+					outboxEventRepository.recordFailedAttempt(event.getId(), attempts, null);
+					log.warn("Outbox event {} ({}) failed delivery, attempt {} of {}", event.getId(), event.getEventType(), attempts, maxAttempts, e);
+					return false;
+				}
+				outboxEventRepository.recordFailedAttempt(event.getId(), attempts, LocalDateTime.now());
+				meterRegistry.counter("vehicle.booking.outbox.parked").increment();
+				log.error("Outbox event {} ({}) failed delivery {} times and is parked", event.getId(), event.getEventType(), attempts, e);
+				continue;
+			}
+			outboxEventRepository.markPublished(List.of(event.getId()), LocalDateTime.now());
+			meterRegistry.counter("vehicle.booking.outbox.published").increment();
+		}
+		return true;
+	}
+
+	private void publish(List<DomainEvent> events) throws Exception {
+		for (IEventSink eventSink : eventSinks) {
+			eventSink.publish(events);
+		}
+	}
+
+	private void backOff() {
+		consecutiveFailures++;
+		long delay = dispatchIntervalMs << Math.min(consecutiveFailures, 20);
+		retryAtMillis = System.currentTimeMillis() + Math.min(delay, maxBackoffMs);
+	}
+
+	private static DomainEvent toDomainEvent(OutboxEvent event) {
+		return new DomainEvent(event.getId(), event.getEventType(), event.getAggregateId(), event.getPayload(), event.getCreatedAt());
+	}
+
+	@Scheduled(cron = "${outbox.purge-cron:0 17 * * * *}")
+	public void purgePublished() {
+		outboxEventRepository.deletePublishedBefore(LocalDateTime.now().minusHours(retentionHours));
+	}
+}
@@ -0,0 +1,50 @@
+package com.booking.vehicleBooking.service.impl;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.booking.vehicleBooking.entity.OutboxEvent;
+import com.booking.vehicleBooking.repo.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+//Writes domain events to the outbox. Callers run it inside the transaction of the change itself,
+//so the event is committed or rolled back together with it and never describes a write that did not happen.
+@Service
+public class OutboxService {
+
+	@Autowired
+	private OutboxEventRepository outboxEventRepository;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void append(String eventType, Long aggregateId, Map<String, Object> payload) {
+		OutboxEvent outboxEvent = new OutboxEvent();
+		outboxEvent.setEventType(eventType);
+		outboxEvent.setAggregateId(aggregateId);
+		outboxEvent.setCreatedAt(LocalDateTime.now());
+		try {
+			outboxEvent.setPayload(objectMapper.writeValueAsString(payload));
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Unable to serialize " + eventType + " event", e);
+		}
+		outboxEventRepository.save(outboxEvent);
+	}
+
+	//name, value, name, value ... in order, null values included
+	public static Map<String, Object> payload(Object... namesAndValues) {
+		Map<String, Object> payload = new LinkedHashMap<>();
+		for (int i = 0; i + 1 < namesAndValues.length; i += 2) {
+			payload.put((String) namesAndValues[i], namesAndValues[i + 1]);
+		}
+		return payload;
+	}
+}
@@ -0,0 +1,201 @@
+package com.booking.vehicleBooking.service.impl;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.booking.vehicleBooking.repo.VehicleRepository;
+
+import jakarta.annotation.PostConstruct;
+
+//Rental prices worked out in whole cents held in longs. Daily rates are kept per vehicle, and
+//every day of the availability horizon has a multiplier in basis points (10000 = x1) combining the
+//weekend and season rates. A prefix sum over those multipliers prices any date range with one
+//subtraction, so a search result of thousands of vehicles costs one multiply per vehicle.
+@Component
+public class PricingEngine {
+
+	private static final long BASIS_POINTS = 10_000;
+
+	@Autowired
+	private VehicleRepository vehicleRepository;
+
+	//multiplier applied on Saturdays and Sundays
+	@Value("${pricing.weekend-multiplier-bp:12000}")
+	private long weekendMultiplierBp;
+
+	//MM-dd..MM-dd=bp, start inclusive and end exclusive, may wrap over the new year
+	@Value("${pricing.seasons:}")
+	private String seasonsProperty;
+
+	@Value("${pricing.mileage.included-per-day:200}")
+	private long includedMilesPerDay;
+
+	//extra-miles upper bound:price per mile, * for the last tier
+	@Value("${pricing.mileage.tiers:500:0.25,2000:0.20,*:0.15}")
+	private String mileageTiersProperty;
+
+	private final Map<Long, Long> dailyRateCents = new ConcurrentHashMap<>();
+	private List<Season> seasons;
+	private long[] tierLimits;
+	private long[] tierCentsPerMile;
+	//cost of all extra miles below tierLimits[i - 1], so a mileage charge needs one tier lookup
+	private long[] tierBaseCents;
+	private volatile DayTable dayTable;
+
+	@PostConstruct
+	void parseRateTables() {
+		seasons = new ArrayList<>();
+		for (String season : seasonsProperty.split(",")) {
+			if (season.isBlank()) continue;
+			String[] rangeAndRate = season.trim().split("=");
+			String[] range = rangeAndRate[0].split("\\.\\.");
+			seasons.add(new Season(MonthDay.parse("--" + range[0].trim()), MonthDay.parse("--" + range[1].trim()),
+					Long.parseLong(rangeAndRate[1].trim())));
+		}
+
+		String[] tiers = mileageTiersProperty.split(",");
+		tierLimits = new long[tiers.length];
+		tierCentsPerMile = new long[tiers.length];
+		tierBaseCents = new long[tiers.length];
+		long previousLimit = 0;
+		for (int i = 0; i < tiers.length; i++) {
+			String[] limitAndPrice = tiers[i].trim().split(":");
+			tierLimits[i] = limitAndPrice[0].trim().equals("*") ? Long.MAX_VALUE : Long.parseLong(limitAndPrice[0].trim());
+			tierCentsPerMile[i] = toCents(new BigDecimal(limitAndPrice[1].trim()));
+			if (i > 0) {
+				tierBaseCents[i] = tierBaseCents[i - 1] + (tierLimits[i - 1] - previousLimit) * tierCentsPerMile[i - 1];
+				previousLimit = tierLimits[i - 1];
+			}
+		}
+		dayTable = buildDayTable(LocalDate.now().toEpochDay());
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void loadRates() {
+		for (Object[] row : vehicleRepository.findAllVehicleIdsAndPrices()) {
+			putVehicle((Long) row[0], (BigDecimal) row[1]);
+		}
+	}
+
+	public void putVehicle(Long vehicleId, BigDecimal vehiclePrice) {
+		if (vehicleId == null) return;
+		if (vehiclePrice == null) {
+			dailyRateCents.remove(vehicleId);
+		} else {
+			dailyRateCents.put(vehicleId, toCents(vehiclePrice));
+		}
+	}
+
+	public void removeVehicle(Long vehicleId) {
+		dailyRateCents.remove(vehicleId);
+	}
+
+	//null when the vehicle is not in the table
+	public Long dailyRateCents(Long vehicleId) {
+		return dailyRateCents.get(vehicleId);
+	}
+
+	//sum of the day multipliers over [checkInDate, checkOutDate), in basis points
+	public long dayFactorBp(LocalDate checkInDate, LocalDate checkOutDate) {
+		long first = checkInDate.toEpochDay();
+		long last = checkOutDate.toEpochDay();
+		DayTable table = currentDayTable();
+		if (first >= table.startDay() && last <= table.startDay() + VehicleAvailabilityIndex.HORIZON_DAYS) {
+			return table.prefixBp()[(int) (last - table.startDay())] - table.prefixBp()[(int) (first - table.startDay())];
+		}
+		long sum = 0;
+		for (long day = first; day < last; day++) {
+			sum += multiplierBp(LocalDate.ofEpochDay(day));
+		}
+		return sum;
+	}
+
+	//rental plus mileage for a vehicle in the table, null when the vehicle has no rate
+	public Long totalCents(Long vehicleId, LocalDate checkInDate, LocalDate checkOutDate, int numOfMiles) {
+		Long rateCents = dailyRateCents.get(vehicleId);
+		if (rateCents == null) return null;
+		long days = checkOutDate.toEpochDay() - checkInDate.toEpochDay();
+		return rentalCents(rateCents, dayFactorBp(checkInDate, checkOutDate)) + mileageCents(numOfMiles, days);
+	}
+
+	//daily rate x day multipliers, rounded half up to the cent
+	public static long rentalCents(long dailyRateCents, long dayFactorBp) {
+		return (dailyRateCents * dayFactorBp + BASIS_POINTS / 2) / BASIS_POINTS;
+	}
+
+	public long mileageCents(long miles, long days) {
+		long extraMiles = miles - includedMilesPerDay * days;
+		if (extraMiles <= 0) return 0;
+		int tier = 0;
+		while (extraMiles > tierLimits[tier]) {
+			tier++;
+		}
+		long tierStart = tier == 0 ? 0 : tierLimits[tier - 1];
+		return tierBaseCents[tier] + (extraMiles - tierStart) * tierCentsPerMile[tier];
+	}
+
+	public static long toCents(BigDecimal amount) {
+		return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+	}
+
+	public static BigDecimal fromCents(long cents) {
+		return BigDecimal.valueOf(cents, 2);
+	}
+
+	//the table starts today, so it is redrawn on the first quote of a new day
+	private DayTable currentDayTable() {
+		DayTable table = dayTable;
+		long today = LocalDate.now().toEpochDay();
+		if (table.startDay() != today) {
+			table = buildDayTable(today);
+			dayTable = table;
+		}
+		return table;
+	}
+
+	private DayTable buildDayTable(long startDay) {
+		long[] prefixBp = new long[VehicleAvailabilityIndex.HORIZON_DAYS + 1];
+		for (int i = 0; i < VehicleAvailabilityIndex.HORIZON_DAYS; i++) {
+			prefixBp[i + 1] = prefixBp[i] + multiplierBp(LocalDate.ofEpochDay(startDay + i));
+		}
+		return new DayTable(startDay, prefixBp);
+	}
+
+	//weekend and season multipliers compound; of overlapping seasons the highest applies
+	private long multiplierBp(LocalDate date) {
+		long multiplier = date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY
+				? weekendMultiplierBp : BASIS_POINTS;
+		long seasonBp = BASIS_POINTS;
+		MonthDay monthDay = MonthDay.from(date);
+		for (Season season : seasons) {
+			if (season.contains(monthDay) && season.multiplierBp() > seasonBp) {
+				seasonBp = season.multiplierBp();
+			}
+		}
+		return multiplier * seasonBp / BASIS_POINTS;
+	}
+
+	private record DayTable(long startDay, long[] prefixBp) {}
+
+	private record Season(MonthDay start, MonthDay end, long multiplierBp) {
+
+		boolean contains(MonthDay day) {
+			return start.isBefore(end)
+					? !day.isBefore(start) && day.isBefore(end)
+					: !day.isBefore(start) || day.isBefore(end);
+		}
+	}
+}
@@ -1,5 +1,6 @@
 package com.booking.vehicleBooking.service.impl;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -7,10 +8,13 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.booking.vehicleBooking.dto.DomainEvent;
 import com.booking.vehicleBooking.dto.LoginRequest;
 import com.booking.vehicleBooking.dto.Response;
 import com.booking.vehicleBooking.dto.UserDTO;
+import com.booking.vehicleBooking.entity.Booking;
 import com.booking.vehicleBooking.entity.User;
 import com.booking.vehicleBooking.exception.CustomException;
 import com.booking.vehicleBooking.repo.UserRepository;
@@ -34,6 +38,24 @@ public class UserService implements IUserService{
 	@Autowired
 	private AuthenticationManager authenticationManager;
 	
+	@Autowired
+	private VehicleAvailabilityIndex vehicleAvailabilityIndex;
+	
+	@Autowired
+	private BookingAnalyticsSnapshot bookingAnalyticsSnapshot;
+	
+	@Autowired
+	private OutboxService outboxService;
+	
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+	
+	@Autowired
+	private CustomUserDetailsService customUserDetailsService;
+	
+	@Autowired
+	private VehicleVersions vehicleVersions;
+	
 	
 	@Override
 	   public Response register(User user) {
@@ -47,6 +69,7 @@ public class UserService implements IUserService{
             }
             user.setPassword(passwordEncoder.encode(user.getPassword()));
             User savedUser = userRepository.save(user);
+            customUserDetailsService.evictUser(savedUser.getEmail());
             UserDTO userDTO = Utils.mapUserEntityToUserDTO(savedUser);
             response.setStatusCode(200);
             response.setUser(userDTO);
@@ -113,7 +136,7 @@ public class UserService implements IUserService{
 		
 		try {
 			
-			User user = userRepository.findById(Long.valueOf(userId)).orElseThrow(() -> new CustomException("User Not Found"));
+			User user = userRepository.findByIdWithBookingsAndVehicles(Long.valueOf(userId)).orElseThrow(() -> new CustomException("User Not Found"));
 			UserDTO userDTO = Utils.mapUserEntityToUserDTOPlusUserBookingsAndRoom(user);
 			response.setStatusCode(200);
 			response.setMessage("Successful");
@@ -136,8 +159,25 @@ public class UserService implements IUserService{
 		Response response = new Response();  
 		
 		try {
-		userRepository.findById(Long.valueOf(userId)).orElseThrow(() -> new CustomException("User Not Found"));
-		userRepository.deleteById(Long.valueOf(userId));
+		User user = userRepository.findById(Long.valueOf(userId)).orElseThrow(() -> new CustomException("User Not Found"));
+		//bookings are removed with the user through the cascade
+		List<Booking> userBookings = new ArrayList<>(user.getBookings());
+		transactionTemplate.executeWithoutResult(status -> {
+			userRepository.deleteById(Long.valueOf(userId));
+			for (Booking booking : userBookings) {
+				outboxService.append(DomainEvent.BOOKING_CANCELLED, booking.getId(), OutboxService.payload(
+						"bookingId", booking.getId(), "vehicleId", booking.getVehicle() == null ? null : booking.getVehicle().getId(),
+						"bookingConfirmationCode", booking.getBookingConfirmationCode()));
+			}
+		});
+		customUserDetailsService.evictUser(user.getEmail());
+		for (Booking booking : userBookings) {
+			if (booking.getVehicle() != null) {
+				vehicleAvailabilityIndex.removeBooking(booking.getId(), booking.getVehicle().getId());
+				bookingAnalyticsSnapshot.markCancelled(booking.getId());
+				vehicleVersions.bump(booking.getVehicle().getId());
+			}
+		}
 		response.setStatusCode(200);
 		response.setMessage("Successful");
 		
@@ -0,0 +1,405 @@
+package com.booking.vehicleBooking.service.impl;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.booking.vehicleBooking.repo.BookingRepository;
+import com.booking.vehicleBooking.repo.VehicleRepository;
+import com.booking.vehicleBooking.utils.Utils;
+
+//In-memory copy of every vehicle's booked date ranges, grouped by vehicle type.
+//Each vehicle keeps its bookings merged into disjoint spans sorted by start date,
+//so an overlap check is a single TreeMap lookup (O(log n)) instead of a table scan.
+//On top of the spans every vehicle has a one-bit-per-day occupancy bitmap over a rolling
+//horizon starting today: a range inside the horizon is checked by masking one or two longs.
+//Ranges reaching past the horizon fall back to the spans, which stay the source of truth.
+@Component
+public class VehicleAvailabilityIndex {
+
+	public static final int HORIZON_DAYS = 730;
+	private static final int HORIZON_WORDS = (HORIZON_DAYS + 63) / 64;
+
+	private static final String UPSERT_OCCUPANCY = "INSERT INTO vehicle_occupancy (vehicle_id, horizon_start, occupancy) VALUES (?, ?, ?) "
+			+ "ON DUPLICATE KEY UPDATE horizon_start = VALUES(horizon_start), occupancy = VALUES(occupancy)";
+	private static final String DELETE_OCCUPANCY = "DELETE FROM vehicle_occupancy WHERE vehicle_id = ?";
+
+	@Autowired
+	private BookingRepository bookingRepository;
+
+	@Autowired
+	private VehicleRepository vehicleRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final Map<Long, VehicleSlot> vehicles = new ConcurrentHashMap<>();
+	//type dictionary: lower-cased type -> entry shared by every slot of that type, so a type
+	//search is one hash lookup and the type list is kept ready instead of read with SELECT DISTINCT
+	private final Map<String, VehicleTypeEntry> vehicleTypes = new ConcurrentHashMap<>();
+	private volatile List<String> vehicleTypeNames = null;
+
+	//updates share the read lock, a rebuild takes the write lock so no update is lost while it runs
+	private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+	private volatile boolean ready = false;
+
+	//epoch day of bit 0 in every bitmap, moved forward once a day by rollHorizon
+	private volatile long horizonStart = LocalDate.now().toEpochDay();
+	//vehicles whose bitmap changed since the last write to the vehicle_occupancy side table
+	private final Set<Long> dirtyVehicleIds = ConcurrentHashMap.newKeySet();
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void rebuild() {
+		rebuildLock.writeLock().lock();
+		try {
+			ready = false;
+			vehicles.clear();
+			vehicleTypes.clear();
+			vehicleTypeNames = null;
+			horizonStart = LocalDate.now().toEpochDay();
+
+			for (Object[] row : vehicleRepository.findAllVehicleIdsAndTypes()) {
+				putVehicleUnlocked((Long) row[0], (String) row[1]);
+			}
+			for (Object[] row : bookingRepository.findAllBookingRanges()) {
+				addBookingUnlocked((Long) row[0], (Long) row[1], (LocalDate) row[2], (LocalDate) row[3]);
+			}
+			dirtyVehicleIds.addAll(vehicles.keySet());
+			ready = true;
+		} finally {
+			rebuildLock.writeLock().unlock();
+		}
+	}
+
+	//Shifts the horizon to start today and redraws every bitmap from the spans. Until it runs a
+	//search starting before the horizon simply takes the span path, so a late roll is never wrong.
+	@Scheduled(cron = "${availability.horizon.roll-cron:0 5 0 * * *}")
+	public void rollHorizon() {
+		rebuildLock.writeLock().lock();
+		try {
+			long today = LocalDate.now().toEpochDay();
+			if (today == horizonStart) return;
+			horizonStart = today;
+			for (VehicleSlot slot : vehicles.values()) {
+				slot.redrawDays(today);
+			}
+			dirtyVehicleIds.addAll(vehicles.keySet());
+		} finally {
+			rebuildLock.writeLock().unlock();
+		}
+	}
+
+	//Writes changed bitmaps to vehicle_occupancy in one batch. The table is derived data for
+	//reporting and other readers; the index itself is always rebuilt from the bookings.
+	@Scheduled(fixedDelayString = "${availability.occupancy.flush-interval-ms:5000}")
+	public void flushOccupancy() {
+		if (dirtyVehicleIds.isEmpty()) return;
+		List<Object[]> upserts = new ArrayList<>();
+		List<Object[]> deletes = new ArrayList<>();
+		for (Long vehicleId : dirtyVehicleIds) {
+			dirtyVehicleIds.remove(vehicleId);
+			VehicleSlot slot = vehicles.get(vehicleId);
+			if (slot == null) {
+				deletes.add(new Object[] { vehicleId });
+				continue;
+			}
+			synchronized (slot) {
+				upserts.add(new Object[] { vehicleId, LocalDate.ofEpochDay(slot.daysStart), toBytes(slot.days) });
+			}
+		}
+		try {
+			if (!upserts.isEmpty()) jdbcTemplate.batchUpdate(UPSERT_OCCUPANCY, upserts);
+			if (!deletes.isEmpty()) jdbcTemplate.batchUpdate(DELETE_OCCUPANCY, deletes);
+		} catch (RuntimeException e) {
+			//retry on the next flush
+			for (Object[] row : upserts) dirtyVehicleIds.add((Long) row[0]);
+			for (Object[] row : deletes) dirtyVehicleIds.add((Long) row[0]);
+			throw e;
+		}
+	}
+
+	//false until the startup rebuild has finished, callers fall back to the database meanwhile
+	public boolean isReady() {
+		return ready;
+	}
+
+	public void putVehicle(Long vehicleId, String vehicleType) {
+		rebuildLock.readLock().lock();
+		try {
+			putVehicleUnlocked(vehicleId, vehicleType);
+		} finally {
+			rebuildLock.readLock().unlock();
+		}
+	}
+
+	public void removeVehicle(Long vehicleId) {
+		rebuildLock.readLock().lock();
+		try {
+			VehicleSlot slot = vehicles.remove(vehicleId);
+			if (slot != null && slot.vehicleType != null) {
+				slot.vehicleType.vehicleIds.remove(vehicleId);
+				vehicleTypeNames = null;
+			}
+			dirtyVehicleIds.add(vehicleId);
+		} finally {
+			rebuildLock.readLock().unlock();
+		}
+	}
+
+	public void addBooking(Long bookingId, Long vehicleId, LocalDate checkInDate, LocalDate checkOutDate) {
+		rebuildLock.readLock().lock();
+		try {
+			addBookingUnlocked(bookingId, vehicleId, checkInDate, checkOutDate);
+		} finally {
+			rebuildLock.readLock().unlock();
+		}
+	}
+
+	public void removeBooking(Long bookingId, Long vehicleId) {
+		rebuildLock.readLock().lock();
+		try {
+			VehicleSlot slot = vehicles.get(vehicleId);
+			if (slot != null && slot.remove(bookingId)) dirtyVehicleIds.add(vehicleId);
+		} finally {
+			rebuildLock.readLock().unlock();
+		}
+	}
+
+	public boolean isAvailable(Long vehicleId, LocalDate checkInDate, LocalDate checkOutDate) {
+		VehicleSlot slot = vehicles.get(vehicleId);
+		return slot == null || !slot.overlaps(checkInDate, checkOutDate, DayMask.of(horizonStart, checkInDate, checkOutDate));
+	}
+
+	//Same matching rules as VehicleRepository.findAvailableVehicleByDatesAndTypes: the whole
+	//normalized type, ignoring case. A null type matches vehicles of every type.
+	public List<Long> findAvailableVehicleIds(LocalDate checkInDate, LocalDate checkOutDate, String vehicleType) {
+		List<Long> availableIds = new ArrayList<>();
+		DayMask mask = DayMask.of(horizonStart, checkInDate, checkOutDate);
+		if (vehicleType == null) {
+			for (Map.Entry<Long, VehicleSlot> entry : vehicles.entrySet()) {
+				if (entry.getValue().vehicleType != null && !entry.getValue().overlaps(checkInDate, checkOutDate, mask)) {
+					availableIds.add(entry.getKey());
+				}
+			}
+			return availableIds;
+		}
+		VehicleTypeEntry type = vehicleTypes.get(typeKey(vehicleType));
+		if (type == null) return availableIds;
+
+		for (Long vehicleId : type.vehicleIds) {
+			VehicleSlot slot = vehicles.get(vehicleId);
+			if (slot == null || !slot.overlaps(checkInDate, checkOutDate, mask)) {
+				availableIds.add(vehicleId);
+			}
+		}
+		return availableIds;
+	}
+
+	//null for a vehicle the index does not know
+	public String getVehicleType(Long vehicleId) {
+		VehicleSlot slot = vehicles.get(vehicleId);
+		VehicleTypeEntry type = slot == null ? null : slot.vehicleType;
+		return type == null ? null : type.name;
+	}
+
+	//types that have at least one vehicle, recomputed only after a vehicle is added, retyped or removed
+	public List<String> getVehicleTypes() {
+		List<String> names = vehicleTypeNames;
+		if (names == null) {
+			names = vehicleTypes.values().stream()
+					.filter(type -> !type.vehicleIds.isEmpty())
+					.map(type -> type.name)
+					.sorted(String.CASE_INSENSITIVE_ORDER)
+					.toList();
+			vehicleTypeNames = names;
+		}
+		return names;
+	}
+
+	//current vehicle ids of every type that has vehicles, by type name in name order
+	public Map<String, Set<Long>> getVehicleIdsByType() {
+		Map<String, Set<Long>> idsByType = new LinkedHashMap<>();
+		for (VehicleTypeEntry type : vehicleTypes.values().stream()
+				.sorted((a, b) -> String.CASE_INSENSITIVE_ORDER.compare(a.name, b.name)).toList()) {
+			if (!type.vehicleIds.isEmpty()) {
+				idsByType.put(type.name, Set.copyOf(type.vehicleIds));
+			}
+		}
+		return idsByType;
+	}
+
+	//vehicles with no booking that is running or still to come, i.e. nothing checks out after today
+	public List<Long> findVehicleIdsFreeFrom(LocalDate today) {
+		List<Long> freeIds = new ArrayList<>();
+		for (Map.Entry<Long, VehicleSlot> entry : vehicles.entrySet()) {
+			if (entry.getValue().vehicleType != null && !entry.getValue().occupiedAfter(today)) {
+				freeIds.add(entry.getKey());
+			}
+		}
+		return freeIds;
+	}
+
+	//bit i of byte i / 8 is day horizon_start + i, the layout stored in vehicle_occupancy
+	private static byte[] toBytes(long[] words) {
+		byte[] bytes = new byte[HORIZON_WORDS * 8];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = (byte) (words[i >>> 3] >>> ((i & 7) << 3));
+		}
+		return bytes;
+	}
+
+	private static String typeKey(String vehicleType) {
+		String normalized = Utils.normalizeVehicleType(vehicleType);
+		return normalized == null ? null : normalized.toLowerCase(Locale.ROOT);
+	}
+
+	private void putVehicleUnlocked(Long vehicleId, String vehicleType) {
+		String key = typeKey(vehicleType);
+		VehicleTypeEntry type = key == null ? null
+				: vehicleTypes.computeIfAbsent(key, k -> new VehicleTypeEntry(Utils.normalizeVehicleType(vehicleType)));
+		VehicleSlot slot = vehicles.computeIfAbsent(vehicleId, id -> new VehicleSlot(horizonStart));
+		synchronized (slot) {
+			if (slot.vehicleType != null) {
+				slot.vehicleType.vehicleIds.remove(vehicleId);
+			}
+			slot.vehicleType = type;
+		}
+		if (type != null) {
+			type.vehicleIds.add(vehicleId);
+		}
+		vehicleTypeNames = null;
+	}
+
+	private void addBookingUnlocked(Long bookingId, Long vehicleId, LocalDate checkInDate, LocalDate checkOutDate) {
+		if (vehicleId == null || checkInDate == null || checkOutDate == null) return;
+		vehicles.computeIfAbsent(vehicleId, id -> new VehicleSlot(horizonStart)).add(bookingId, checkInDate, checkOutDate);
+		dirtyVehicleIds.add(vehicleId);
+	}
+
+	//Bits of a [checkIn, checkOut) range inside the horizon, worked out once per search and
+	//applied to every vehicle. Null when the range is empty or not fully inside the horizon.
+	private record DayMask(long horizonStart, int firstWord, int lastWord, long firstMask, long lastMask) {
+
+		static DayMask of(long horizonStart, LocalDate checkInDate, LocalDate checkOutDate) {
+			long first = checkInDate.toEpochDay() - horizonStart;
+			long last = checkOutDate.toEpochDay() - horizonStart - 1;
+			if (first < 0 || last < first || last >= HORIZON_DAYS) return null;
+			return new DayMask(horizonStart, (int) (first >>> 6), (int) (last >>> 6),
+					-1L << first, -1L >>> (63 - (last & 63)));
+		}
+
+		boolean intersects(long[] days) {
+			if (firstWord == lastWord) return (days[firstWord] & firstMask & lastMask) != 0;
+			if ((days[firstWord] & firstMask) != 0) return true;
+			for (int word = firstWord + 1; word < lastWord; word++) {
+				if (days[word] != 0) return true;
+			}
+			return (days[lastWord] & lastMask) != 0;
+		}
+	}
+
+	//name keeps the first spelling seen, like SELECT DISTINCT under a case-insensitive collation
+	private static final class VehicleTypeEntry {
+
+		private final String name;
+		private final Set<Long> vehicleIds = ConcurrentHashMap.newKeySet();
+
+		VehicleTypeEntry(String name) {
+			this.name = name;
+		}
+	}
+
+	private static final class VehicleSlot {
+
+		private VehicleTypeEntry vehicleType;
+		private final Map<Long, LocalDate[]> bookings = new HashMap<>();
+		//disjoint occupied spans, start date (inclusive) -> end date (exclusive)
+		private final TreeMap<LocalDate, LocalDate> occupied = new TreeMap<>();
+		//one bit per occupied day from daysStart, HORIZON_DAYS long
+		private final long[] days = new long[HORIZON_WORDS];
+		private long daysStart;
+
+		VehicleSlot(long daysStart) {
+			this.daysStart = daysStart;
+		}
+
+		synchronized void add(Long bookingId, LocalDate checkInDate, LocalDate checkOutDate) {
+			bookings.put(bookingId, new LocalDate[] { checkInDate, checkOutDate });
+			occupy(checkInDate, checkOutDate);
+			markDays(checkInDate, checkOutDate);
+		}
+
+		synchronized boolean remove(Long bookingId) {
+			if (bookings.remove(bookingId) == null) return false;
+			//spans may be shared between bookings, so re-merge whatever is left
+			occupied.clear();
+			for (LocalDate[] range : bookings.values()) {
+				occupy(range[0], range[1]);
+			}
+			redrawDays(daysStart);
+			return true;
+		}
+
+		//the mask is only usable if this bitmap was drawn for the same horizon, a roll may be halfway through
+		synchronized boolean overlaps(LocalDate checkInDate, LocalDate checkOutDate, DayMask mask) {
+			if (mask != null && mask.horizonStart() == daysStart) {
+				return mask.intersects(days);
+			}
+			Map.Entry<LocalDate, LocalDate> span = occupied.lowerEntry(checkOutDate);
+			return span != null && span.getValue().isAfter(checkInDate);
+		}
+
+		synchronized boolean occupiedAfter(LocalDate date) {
+			return !occupied.isEmpty() && occupied.lastEntry().getValue().isAfter(date);
+		}
+
+		synchronized void redrawDays(long start) {
+			daysStart = start;
+			Arrays.fill(days, 0L);
+			for (Map.Entry<LocalDate, LocalDate> span : occupied.entrySet()) {
+				markDays(span.getKey(), span.getValue());
+			}
+		}
+
+		private void markDays(LocalDate start, LocalDate end) {
+			long from = Math.max(start.toEpochDay() - daysStart, 0);
+			long to = Math.min(end.toEpochDay() - daysStart, HORIZON_DAYS);
+			for (long day = from; day < to; day++) {
+				days[(int) (day >>> 6)] |= 1L << day;
+			}
+		}
+
+		private void occupy(LocalDate start, LocalDate end) {
+			if (!end.isAfter(start)) return;
+			Map.Entry<LocalDate, LocalDate> previous = occupied.floorEntry(start);
+			if (previous != null && !previous.getValue().isBefore(start)) {
+				start = previous.getKey();
+				if (previous.getValue().isAfter(end)) end = previous.getValue();
+			}
+			Map.Entry<LocalDate, LocalDate> next = occupied.ceilingEntry(start);
+			while (next != null && !next.getKey().isAfter(end)) {
+				if (next.getValue().isAfter(end)) end = next.getValue();
+				occupied.remove(next.getKey());
+				next = occupied.ceilingEntry(start);
+			}
+			occupied.put(start, end);
+		}
+	}
+}
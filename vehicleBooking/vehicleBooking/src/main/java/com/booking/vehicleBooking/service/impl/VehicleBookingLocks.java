@@ -0,0 +1,51 @@
+package com.booking.vehicleBooking.service.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.stereotype.Component;
+
+//Fixed set of locks striped by vehicle id. Two bookings for the same vehicle always
+//map to the same lock and are admitted one at a time, bookings for other vehicles
+//land on other stripes and run in parallel. Only guards a single application instance.
+@Component
+public class VehicleBookingLocks {
+
+	private static final int STRIPES = 256;
+
+	private final Lock[] locks = new Lock[STRIPES];
+
+	public VehicleBookingLocks() {
+		for (int i = 0; i < STRIPES; i++) {
+			locks[i] = new ReentrantLock();
+		}
+	}
+
+	public Lock lockFor(Long vehicleId) {
+		return locks[stripeOf(vehicleId)];
+	}
+
+	//Distinct locks for a set of vehicles in stripe order. Every caller acquires them in the
+	//same order, so two batches sharing vehicles cannot deadlock.
+	public List<Lock> locksFor(Collection<Long> vehicleIds) {
+		TreeSet<Integer> stripes = new TreeSet<>();
+		for (Long vehicleId : vehicleIds) {
+			stripes.add(stripeOf(vehicleId));
+		}
+		List<Lock> ordered = new ArrayList<>(stripes.size());
+		for (int stripe : stripes) {
+			ordered.add(locks[stripe]);
+		}
+		return ordered;
+	}
+
+	private int stripeOf(Long vehicleId) {
+		int hash = Long.hashCode(vehicleId);
+		hash ^= (hash >>> 16);
+		return (hash & 0x7fffffff) % STRIPES;
+	}
+}
@@ -0,0 +1,26 @@
+package com.booking.vehicleBooking.service.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+
+//Version stamp of the vehicle catalog, moved forward by every vehicle write. The value is an
+//epoch millisecond that never goes backwards, so a restart always lands on a version newer than
+//any ETag handed out before it. It is only used in ETags, never as Last-Modified.
+@Component
+public class VehicleCatalogVersion {
+
+	private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+
+	public long current() {
+		return version.get();
+	}
+
+	public long bump() {
+		return version.accumulateAndGet(System.currentTimeMillis(), (previous, now) -> Math.max(previous + 1, now));
+	}
+
+	public static String etag(long version) {
+		return "\"catalog-" + version + "\"";
+	}
+}
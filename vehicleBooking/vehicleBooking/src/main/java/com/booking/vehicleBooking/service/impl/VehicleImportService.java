@@ -0,0 +1,287 @@
+package com.booking.vehicleBooking.service.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.booking.vehicleBooking.dto.DomainEvent;
+import com.booking.vehicleBooking.dto.Response;
+import com.booking.vehicleBooking.service.interfac.IImageStorageService;
+import com.booking.vehicleBooking.service.interfac.IVehicleImportService;
+import com.booking.vehicleBooking.utils.Utils;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+//Bulk vehicle import from CSV (with a header row) or NDJSON. The body is read a line at a time and
+//rows are written in JDBC batches, so memory stays flat whatever the file size. Vehicle ids are
+//IDENTITY, which Hibernate cannot batch, so the inserts go through JDBC directly.
+@Service
+public class VehicleImportService implements IVehicleImportService {
+
+	public static final int IMPORT_BATCH_SIZE = 1000;
+	private static final int MAX_REPORTED_ERRORS = 1000;
+
+	private static final String INSERT_VEHICLE = "INSERT INTO vehicles (vehicle_type, vehicle_price, vehicle_photo_url, vehicle_description) VALUES (?, ?, ?, ?)";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private IImageStorageService imageStorageService;
+
+	@Autowired
+	private VehicleAvailabilityIndex vehicleAvailabilityIndex;
+
+	@Autowired
+	private VehicleCatalogVersion vehicleCatalogVersion;
+
+	@Autowired
+	private PricingEngine pricingEngine;
+
+	@Autowired
+	private OutboxService outboxService;
+
+	@Override
+	@Caching(evict = {
+			@CacheEvict(cacheNames = Utils.VEHICLES_CACHE, allEntries = true),
+			@CacheEvict(cacheNames = Utils.VEHICLE_TYPES_CACHE, allEntries = true)})
+	public Response importVehicles(InputStream inputStream, String contentType) {
+
+		Response response = new Response();
+		ImportResult result = new ImportResult();
+
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+			boolean csv = contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith("text/csv");
+			Map<String, Integer> csvColumns = null;
+			List<ImportRow> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+			String line;
+			int lineNumber = 0;
+
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+				if (line.isBlank()) {
+					continue;
+				}
+				if (csv && csvColumns == null) {
+					csvColumns = readCsvHeader(line);
+					continue;
+				}
+				try {
+					batch.add(csv ? parseCsvRow(lineNumber, line, csvColumns) : parseJsonRow(lineNumber, line));
+				} catch (IllegalArgumentException | IOException e) {
+					result.fail(lineNumber, e.getMessage());
+				}
+				if (batch.size() == IMPORT_BATCH_SIZE) {
+					insertBatch(batch, result);
+					batch.clear();
+				}
+			}
+			insertBatch(batch, result);
+
+			response.setStatusCode(result.imported == 0 && result.failed > 0 ? 400 : 200);
+			response.setMessage("Imported " + result.imported + " vehicles, " + result.failed + " rows failed");
+			response.setImportedCount(result.imported);
+			response.setErrors(result.errors.isEmpty() ? null : result.errors);
+
+		} catch (IllegalArgumentException e) {
+			response.setStatusCode(400);
+			response.setMessage(e.getMessage());
+		} catch (Exception e) {
+			response.setStatusCode(500);
+			response.setMessage("Error importing vehicles " + e.getMessage() + " (" + result.imported + " vehicles were imported)");
+		} finally {
+			//batches committed before a failure are in the catalog as well
+			if (result.imported > 0) {
+				vehicleCatalogVersion.bump();
+			}
+		}
+		return response;
+	}
+
+	//One multi-row round trip per batch in its own transaction together with the batch's VehicleCreated
+	//events, so a failing batch rolls back as a whole and is reported against each of its rows while
+	//the index only sees committed rows
+	private void insertBatch(List<ImportRow> batch, ImportResult result) {
+		if (batch.isEmpty()) {
+			return;
+		}
+		try {
+			List<Long> ids = transactionTemplate.execute(status -> {
+				List<Long> insertedIds = jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+					try (PreparedStatement statement = connection.prepareStatement(INSERT_VEHICLE, Statement.RETURN_GENERATED_KEYS)) {
+						for (ImportRow row : batch) {
+							statement.setString(1, row.vehicleType());
+							statement.setBigDecimal(2, row.vehiclePrice());
+							statement.setString(3, row.vehiclePhotoUrl());
+							statement.setString(4, row.vehicleDescription());
+							statement.addBatch();
+						}
+						statement.executeBatch();
+						List<Long> generatedIds = new ArrayList<>(batch.size());
+						try (ResultSet keys = statement.getGeneratedKeys()) {
+							while (keys.next()) {
+								generatedIds.add(keys.getLong(1));
+							}
+						}
+						if (generatedIds.size() != batch.size()) {
+							throw new IllegalStateException("Expected " + batch.size() + " generated ids, got " + generatedIds.size());
+						}
+						return generatedIds;
+					}
+				});
+				for (int i = 0; i < batch.size(); i++) {
+					ImportRow row = batch.get(i);
+					outboxService.append(DomainEvent.VEHICLE_CREATED, insertedIds.get(i), OutboxService.payload(
+							"vehicleId", insertedIds.get(i), "vehicleType", row.vehicleType(), "vehiclePrice", row.vehiclePrice(),
+							"vehiclePhotoUrl", row.vehiclePhotoUrl()));
+				}
+				return insertedIds;
+			});
+			for (int i = 0; i < batch.size(); i++) {
+				vehicleAvailabilityIndex.putVehicle(ids.get(i), batch.get(i).vehicleType());
+				pricingEngine.putVehicle(ids.get(i), batch.get(i).vehiclePrice());
+			}
+			result.imported += batch.size();
+		} catch (Exception e) {
+			for (ImportRow row : batch) {
+				result.fail(row.lineNumber(), "not saved, batch failed: " + e.getMessage());
+			}
+		}
+	}
+
+	private ImportRow parseJsonRow(int lineNumber, String line) throws IOException {
+		JsonNode node = objectMapper.readTree(line);
+		if (!node.isObject()) {
+			throw new IllegalArgumentException("expected a JSON object");
+		}
+		return toRow(lineNumber, text(node, "vehicleType"), text(node, "vehiclePrice"),
+				text(node, "vehiclePhotoUrl"), text(node, "vehicleDescription"));
+	}
+
+	private static String text(JsonNode node, String field) {
+		JsonNode value = node.get(field);
+		return value == null || value.isNull() ? null : value.asText();
+	}
+
+	private ImportRow parseCsvRow(int lineNumber, String line, Map<String, Integer> columns) {
+		List<String> values = splitCsvLine(line);
+		return toRow(lineNumber, column(values, columns, "vehicletype"), column(values, columns, "vehicleprice"),
+				column(values, columns, "vehiclephotourl"), column(values, columns, "vehicledescription"));
+	}
+
+	private static String column(List<String> values, Map<String, Integer> columns, String name) {
+		Integer index = columns.get(name);
+		return index == null || index >= values.size() ? null : values.get(index);
+	}
+
+	static Map<String, Integer> readCsvHeader(String line) {
+		Map<String, Integer> columns = new HashMap<>();
+		List<String> names = splitCsvLine(line);
+		for (int i = 0; i < names.size(); i++) {
+			columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+		}
+		if (!columns.containsKey("vehicletype") || !columns.containsKey("vehicleprice") || !columns.containsKey("vehiclephotourl")) {
+			throw new IllegalArgumentException("CSV header must name vehicleType, vehiclePrice and vehiclePhotoUrl columns");
+		}
+		return columns;
+	}
+
+	//RFC 4180 fields on a single line: commas inside double quotes, "" for a literal quote
+	static List<String> splitCsvLine(String line) {
+		List<String> values = new ArrayList<>();
+		StringBuilder value = new StringBuilder();
+		boolean quoted = false;
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (quoted) {
+				if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+					value.append('"');
+					i++;
+				} else if (c == '"') {
+					quoted = false;
+				} else {
+					value.append(c);
+				}
+			} else if (c == '"') {
+				quoted = true;
+			} else if (c == ',') {
+				values.add(value.toString());
+				value.setLength(0);
+			} else {
+				value.append(c);
+			}
+		}
+		if (quoted) {
+			throw new IllegalArgumentException("unterminated quoted field");
+		}
+		values.add(value.toString());
+		return values;
+	}
+
+	//same rules as the add endpoint: type, price and photo are required
+	private ImportRow toRow(int lineNumber, String vehicleType, String vehiclePrice, String photo, String description) {
+		if (vehicleType == null || vehicleType.isBlank()) {
+			throw new IllegalArgumentException("vehicleType is required");
+		}
+		if (vehiclePrice == null || vehiclePrice.isBlank()) {
+			throw new IllegalArgumentException("vehiclePrice is required");
+		}
+		if (photo == null || photo.isBlank()) {
+			throw new IllegalArgumentException("vehiclePhotoUrl is required");
+		}
+		BigDecimal price;
+		try {
+			price = new BigDecimal(vehiclePrice.trim());
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("vehiclePrice is not a number: " + vehiclePrice);
+		}
+		if (price.signum() <= 0) {
+			throw new IllegalArgumentException("vehiclePrice must be greater than 0");
+		}
+		//a bare key refers to a photo already in image storage, anything with a scheme is used as is
+		String photoUrl = photo.contains("://") ? photo.trim() : imageStorageService.imageUrl(photo.trim());
+		String trimmedDescription = description == null || description.isBlank() ? null : description.trim();
+		return new ImportRow(lineNumber, Utils.normalizeVehicleType(vehicleType), price, photoUrl, trimmedDescription);
+	}
+
+	private record ImportRow(int lineNumber, String vehicleType, BigDecimal vehiclePrice, String vehiclePhotoUrl, String vehicleDescription) {}
+
+	private static class ImportResult {
+		private int imported;
+		private int failed;
+		private final List<String> errors = new ArrayList<>();
+
+		//only the first errors are kept so a bad file cannot grow the response without bound
+		void fail(int lineNumber, String message) {
+			failed++;
+			if (errors.size() < MAX_REPORTED_ERRORS) {
+				errors.add("line " + lineNumber + ": " + message);
+			}
+		}
+	}
+}
@@ -0,0 +1,220 @@
+package com.booking.vehicleBooking.service.impl;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.booking.vehicleBooking.exception.CustomException;
+import com.booking.vehicleBooking.service.interfac.IImageStorageService;
+import com.booking.vehicleBooking.utils.Utils;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+//Turns an uploaded photo into stored images. Photos are keyed by the SHA-256 of their content,
+//so re-uploading the same photo stores nothing and different photos with the same file name
+//no longer overwrite each other. Thumbnails are rendered once per distinct photo.
+@Service
+public class VehiclePhotoProcessor {
+
+	private static final Logger log = LoggerFactory.getLogger(VehiclePhotoProcessor.class);
+
+	public static final int SMALL_THUMBNAIL_WIDTH = 160;
+	public static final int MEDIUM_THUMBNAIL_WIDTH = 480;
+
+	@Autowired
+	private IImageStorageService imageStorageService;
+
+	@Value("${image.thumbnail.threads:2}")
+	private int thumbnailThreads;
+
+	@Value("${image.thumbnail.queue-capacity:50}")
+	private int thumbnailQueueCapacity;
+
+	//a decoded image takes 4 bytes a pixel, 25M pixels is about 100 MB of heap
+	@Value("${image.max-pixels:25000000}")
+	private long maxPixels;
+
+	private ThreadPoolExecutor thumbnailExecutor;
+
+	@PostConstruct
+	void init() {
+		//when the queue is full the request thread renders the thumbnail itself
+		AtomicInteger threadCount = new AtomicInteger();
+		thumbnailExecutor = new ThreadPoolExecutor(thumbnailThreads, thumbnailThreads, 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(thumbnailQueueCapacity),
+				runnable -> {
+					Thread thread = new Thread(runnable, "thumbnail-" + threadCount.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				},
+				new ThreadPoolExecutor.CallerRunsPolicy());
+	}
+
+	@PreDestroy
+	void shutdown() {
+		thumbnailExecutor.shutdown();
+	}
+
+	public StoredPhoto store(MultipartFile photo) {
+		String contentType = photo.getContentType();
+		if (!Utils.isSupportedImageType(contentType)) {
+			throw new CustomException("Invalid file type. Only JPEG, JPG, and PNG are allowed.");
+		}
+
+		Path staged = null;
+		try {
+			//the multipart temp file is gone once the request ends, hash while copying it to our own file
+			staged = Files.createTempFile("vehicle-photo-", null);
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			try (InputStream inputStream = new DigestInputStream(photo.getInputStream(), digest)) {
+				Files.copy(inputStream, staged, StandardCopyOption.REPLACE_EXISTING);
+			}
+			String hash = HexFormat.of().formatHex(digest.digest());
+			String key = hash + (contentType.equals("image/png") ? ".png" : ".jpg");
+			String smallKey = thumbnailKey(hash, SMALL_THUMBNAIL_WIDTH);
+			String mediumKey = thumbnailKey(hash, MEDIUM_THUMBNAIL_WIDTH);
+
+			//A stored original does not prove its thumbnails exist: the first upload may not have been
+			//decodable, a thumbnail may have failed, or another upload of the same photo is still running.
+			//Only what is missing is rendered or stored again.
+			boolean originalStored = imageStorageService.imageExists(key);
+			String smallUrl = originalStored && imageStorageService.imageExists(smallKey) ? imageStorageService.imageUrl(smallKey) : null;
+			String mediumUrl = originalStored && imageStorageService.imageExists(mediumKey) ? imageStorageService.imageUrl(mediumKey) : null;
+			if (originalStored && smallUrl != null && mediumUrl != null) {
+				Files.deleteIfExists(staged);
+				return new StoredPhoto(imageStorageService.imageUrl(key), smallUrl, mediumUrl);
+			}
+
+			BufferedImage original = readImage(staged);
+			if (original != null) {
+				Future<String> small = smallUrl == null
+						? thumbnailExecutor.submit(() -> renderThumbnail(original, smallKey, SMALL_THUMBNAIL_WIDTH)) : null;
+				Future<String> medium = mediumUrl == null
+						? thumbnailExecutor.submit(() -> renderThumbnail(original, mediumKey, MEDIUM_THUMBNAIL_WIDTH)) : null;
+				if (small != null) smallUrl = awaitThumbnail(small);
+				if (medium != null) mediumUrl = awaitThumbnail(medium);
+			}
+
+			if (originalStored) {
+				Files.deleteIfExists(staged);
+				return new StoredPhoto(imageStorageService.imageUrl(key), smallUrl, mediumUrl);
+			}
+			String photoUrl = imageStorageService.saveImage(key, staged, contentType);
+			return new StoredPhoto(photoUrl, smallUrl, mediumUrl);
+
+		} catch (IOException | NoSuchAlgorithmException e) {
+			deleteQuietly(staged);
+			e.printStackTrace();
+			throw new CustomException("Unable to process image");
+		} catch (RuntimeException e) {
+			deleteQuietly(staged);
+			throw e;
+		}
+	}
+
+	//The dimensions are read from the header first, so an image that would not fit in memory once
+	//decoded is turned away before any pixels are allocated. Null when no reader knows the format.
+	private BufferedImage readImage(Path file) throws IOException {
+		try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+			Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+			if (readers == null || !readers.hasNext()) {
+				return null;
+			}
+			ImageReader reader = readers.next();
+			try {
+				reader.setInput(input, true, true);
+				long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+				if (pixels > maxPixels) {
+					throw new CustomException("Image is too large, at most " + maxPixels + " pixels are allowed");
+				}
+				return reader.read(0);
+			} finally {
+				reader.dispose();
+			}
+		}
+	}
+
+	private String renderThumbnail(BufferedImage original, String key, int maxWidth) throws IOException {
+		int width = Math.min(maxWidth, original.getWidth());
+		int height = Math.max(1, (int) Math.round((double) original.getHeight() * width / original.getWidth()));
+
+		BufferedImage thumbnail = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = thumbnail.createGraphics();
+		try {
+			graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+			//JPEG has no alpha: transparent areas of a PNG come out white instead of black
+			graphics.drawImage(original, 0, 0, width, height, Color.WHITE, null);
+		} finally {
+			graphics.dispose();
+		}
+
+		Path file = Files.createTempFile("vehicle-thumbnail-", ".jpg");
+		try {
+			ImageIO.write(thumbnail, "jpg", file.toFile());
+		} catch (IOException e) {
+			Files.deleteIfExists(file);
+			throw e;
+		}
+		return imageStorageService.saveImage(key, file, "image/jpeg");
+	}
+
+	//a failed thumbnail leaves its URL empty, the vehicle is still saved with the full-size photo
+	private String awaitThumbnail(Future<String> thumbnail) {
+		try {
+			return thumbnail.get();
+		} catch (InterruptedException e) {
+			thumbnail.cancel(true);
+			Thread.currentThread().interrupt();
+			return null;
+		} catch (ExecutionException | CancellationException e) {
+			log.warn("Unable to create thumbnail", e);
+			return null;
+		}
+	}
+
+	private static String thumbnailKey(String hash, int width) {
+		return hash + "_w" + width + ".jpg";
+	}
+
+	private static void deleteQuietly(Path file) {
+		if (file == null) return;
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			log.warn("Unable to delete staged upload {}", file, e);
+		}
+	}
+
+	public record StoredPhoto(String photoUrl, String thumbnailSmallUrl, String thumbnailMediumUrl) {}
+}
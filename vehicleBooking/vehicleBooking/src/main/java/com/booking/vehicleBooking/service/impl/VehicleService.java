@@ -1,22 +1,44 @@
 package com.booking.vehicleBooking.service.impl;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.booking.vehicleBooking.dto.DomainEvent;
+import com.booking.vehicleBooking.dto.QuoteDTO;
 import com.booking.vehicleBooking.dto.Response;
 import com.booking.vehicleBooking.dto.VehicleDTO;
+import com.booking.vehicleBooking.entity.Booking;
 import com.booking.vehicleBooking.entity.Vehicle;
 import com.booking.vehicleBooking.exception.CustomException;
 import com.booking.vehicleBooking.repo.BookingRepository;
 import com.booking.vehicleBooking.repo.VehicleRepository;
+import com.booking.vehicleBooking.service.impl.VehiclePhotoProcessor.StoredPhoto;
 import com.booking.vehicleBooking.service.interfac.IVehicleService;
 import com.booking.vehicleBooking.utils.Utils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 
 @Service
 public class VehicleService implements IVehicleService{
@@ -28,9 +50,41 @@ public class VehicleService implements IVehicleService{
 	private BookingRepository bookingRepository;
 	
 	@Autowired
-	private AwsS3Service awsS3Service;
+	private VehiclePhotoProcessor vehiclePhotoProcessor;
+	
+	@Autowired
+	private VehicleAvailabilityIndex vehicleAvailabilityIndex;
+	
+	//list caches are keyed by this version, so an entry read under a version never predates that version's write
+	@Autowired
+	private VehicleCatalogVersion vehicleCatalogVersion;
+	
+	//the vehicleById cache is keyed by this version, bumped by every write to the vehicle or its bookings
+	@Autowired
+	private VehicleVersions vehicleVersions;
+	
+	@Autowired
+	private PricingEngine pricingEngine;
+	
+	@Autowired
+	private BookingAnalyticsSnapshot bookingAnalyticsSnapshot;
+	
+	@Autowired
+	private OutboxService outboxService;
+	
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+	
+	@Autowired
+	private ObjectMapper objectMapper;
+	
+	@PersistenceContext
+	private EntityManager entityManager;
 	
 	@Override
+	@Caching(evict = {
+			@CacheEvict(cacheNames = Utils.VEHICLES_CACHE, allEntries = true),
+			@CacheEvict(cacheNames = Utils.VEHICLE_TYPES_CACHE, allEntries = true)})
 	public Response addNewVehicle(MultipartFile photo, String vehicleType, BigDecimal vehiclePrice,
 			String description) {
 		
@@ -38,15 +92,26 @@ public class VehicleService implements IVehicleService{
 		
 		try {
 			
-			String imageUrl = awsS3Service.saveImageToS3(photo);
+			StoredPhoto storedPhoto = vehiclePhotoProcessor.store(photo);
 			Vehicle vehicle = new Vehicle();
 			
-			vehicle.setVehiclePhotoUrl(imageUrl);
-			vehicle.setVehicleType(vehicleType);
+			vehicle.setVehiclePhotoUrl(storedPhoto.photoUrl());
+			vehicle.setVehicleThumbnailSmallUrl(storedPhoto.thumbnailSmallUrl());
+			vehicle.setVehicleThumbnailMediumUrl(storedPhoto.thumbnailMediumUrl());
+			vehicle.setVehicleType(Utils.normalizeVehicleType(vehicleType));
 			vehicle.setVehiclePrice(vehiclePrice);
 			vehicle.setVehicleDescription(description);
 			
-			Vehicle savedVehicle = vehicleRepository.save(vehicle); 
+			Vehicle savedVehicle = transactionTemplate.execute(status -> {
+				Vehicle saved = vehicleRepository.save(vehicle);
+				outboxService.append(DomainEvent.VEHICLE_CREATED, saved.getId(), OutboxService.payload(
+						"vehicleId", saved.getId(), "vehicleType", saved.getVehicleType(), "vehiclePrice", saved.getVehiclePrice(),
+						"vehiclePhotoUrl", saved.getVehiclePhotoUrl()));
+				return saved;
+			});
+			vehicleAvailabilityIndex.putVehicle(savedVehicle.getId(), savedVehicle.getVehicleType());
+			pricingEngine.putVehicle(savedVehicle.getId(), savedVehicle.getVehiclePrice());
+			vehicleCatalogVersion.bump();
 			VehicleDTO vehicleDTO = Utils.mapVehicleEntityToVehicleDTO(savedVehicle);
 			response.setStatusCode(200);
 			response.setMessage("Success");
@@ -60,6 +125,7 @@ public class VehicleService implements IVehicleService{
 	}
 
 	@Override
+	@Cacheable(cacheNames = Utils.VEHICLES_CACHE, key = "@vehicleCatalogVersion.current()", unless = "#result.statusCode != 200")
 	public Response getAllVehicles() {
 		
 		Response response = new Response();
@@ -82,20 +148,88 @@ public class VehicleService implements IVehicleService{
 	}
 
 	@Override
+	public Response getAllVehicles(Long lastSeenId, int size) {
+		
+		Response response = new Response();
+		
+		try {
+			
+			int pageSize = Utils.clampPageSize(size);
+			List<Vehicle> vehicleList = vehicleRepository.findByIdLessThanOrderByIdDesc(lastSeenId == null ? Long.MAX_VALUE : lastSeenId, Limit.of(pageSize));
+			List<VehicleDTO> vehicleDTOList = Utils.mapVehicleListEntityToVehicleListDTO(vehicleList);
+			
+			response.setStatusCode(200);
+			response.setMessage("Success");
+			response.setVehicleList(vehicleDTOList);
+			if (vehicleList.size() == pageSize) {
+				response.setLastSeenId(vehicleList.get(vehicleList.size() - 1).getId());
+			}
+			
+		}catch (Exception e) {
+			response.setStatusCode(500);
+			response.setMessage("Error getting all vehicle" + e.getMessage());
+		}
+		return response;
+	}
+	
+	//Writes one VehicleDTO per line, a keyset page at a time, so memory does not grow with the table
+	@Override
+	public void streamAllVehicles(OutputStream outputStream) throws IOException {
+		long lastSeenId = Long.MAX_VALUE;
+		List<Vehicle> page;
+		do {
+			page = vehicleRepository.findByIdLessThanOrderByIdDesc(lastSeenId, Limit.of(Utils.STREAM_BATCH_SIZE));
+			for (Vehicle vehicle : page) {
+				outputStream.write(objectMapper.writeValueAsBytes(Utils.mapVehicleEntityToVehicleDTO(vehicle)));
+				outputStream.write('\n');
+			}
+			if (!page.isEmpty()) {
+				lastSeenId = page.get(page.size() - 1).getId();
+			}
+			entityManager.clear();
+			outputStream.flush();
+		} while (page.size() == Utils.STREAM_BATCH_SIZE);
+	}
+
+	@Override
+	@Cacheable(cacheNames = Utils.VEHICLE_TYPES_CACHE, key = "@vehicleCatalogVersion.current()")
 	public List<String> getAllVehicleTypes() {
-		return vehicleRepository.findDistinctVehicleTypes();
+		return vehicleAvailabilityIndex.isReady()
+				? vehicleAvailabilityIndex.getVehicleTypes()
+				: vehicleRepository.findDistinctVehicleTypes();
 		
 	}
 
 	@Override
+	@Caching(evict = {
+			@CacheEvict(cacheNames = Utils.VEHICLES_CACHE, allEntries = true),
+			@CacheEvict(cacheNames = Utils.VEHICLE_TYPES_CACHE, allEntries = true)})
 	public Response deleteVehicle(Long vehicleId) {
 		
 		Response response = new Response();
 		
 		try {
 			
-			vehicleRepository.findById(vehicleId).orElseThrow(() -> new CustomException("Vehicle not found"));
-			vehicleRepository.deleteById(vehicleId);
+			//bookings are removed with the vehicle through the cascade, each one is cancelled for listeners
+			List<Booking> vehicleBookings = transactionTemplate.execute(status -> {
+				Vehicle vehicle = vehicleRepository.findById(vehicleId).orElseThrow(() -> new CustomException("Vehicle not found"));
+				List<Booking> bookings = new ArrayList<>(vehicle.getBookings());
+				vehicleRepository.delete(vehicle);
+				for (Booking booking : bookings) {
+					outboxService.append(DomainEvent.BOOKING_CANCELLED, booking.getId(), OutboxService.payload(
+							"bookingId", booking.getId(), "vehicleId", vehicleId,
+							"bookingConfirmationCode", booking.getBookingConfirmationCode()));
+				}
+				outboxService.append(DomainEvent.VEHICLE_DELETED, vehicleId, OutboxService.payload("vehicleId", vehicleId));
+				return bookings;
+			});
+			vehicleAvailabilityIndex.removeVehicle(vehicleId);
+			pricingEngine.removeVehicle(vehicleId);
+			for (Booking booking : vehicleBookings) {
+				bookingAnalyticsSnapshot.markCancelled(booking.getId());
+			}
+			vehicleCatalogVersion.bump();
+			vehicleVersions.bump(vehicleId);
 			response.setStatusCode(200);
 			response.setMessage("Success");
 			
@@ -113,21 +247,39 @@ public class VehicleService implements IVehicleService{
 	}
 
 	 @Override
+	 @Caching(evict = {
+			@CacheEvict(cacheNames = Utils.VEHICLES_CACHE, allEntries = true),
+			@CacheEvict(cacheNames = Utils.VEHICLE_TYPES_CACHE, allEntries = true)})
 	    public Response updateVehicle(Long vehicleId, String description, String vehicleType, BigDecimal vehiclePrice, MultipartFile photo) {
 	        Response response = new Response();
 
 	        try {
-	            String imageUrl = null;
+	            StoredPhoto storedPhoto = null;
 	            if (photo != null && !photo.isEmpty()) {
-	                imageUrl = awsS3Service.saveImageToS3(photo);
+	                storedPhoto = vehiclePhotoProcessor.store(photo);
 	            }
 	            Vehicle vehicle = vehicleRepository.findById(vehicleId).orElseThrow(() -> new CustomException("Vehicle Not Found"));
-	            if (vehicleType != null) vehicle.setVehicleType(vehicleType);
+	            String normalizedType = Utils.normalizeVehicleType(vehicleType);
+	            if (normalizedType != null) vehicle.setVehicleType(normalizedType);
 	            if (vehiclePrice != null) vehicle.setVehiclePrice(vehiclePrice);
 	            if (description != null) vehicle.setVehicleDescription(description);
-	            if (imageUrl != null) vehicle.setVehiclePhotoUrl(imageUrl);
+	            if (storedPhoto != null) {
+	                vehicle.setVehiclePhotoUrl(storedPhoto.photoUrl());
+	                vehicle.setVehicleThumbnailSmallUrl(storedPhoto.thumbnailSmallUrl());
+	                vehicle.setVehicleThumbnailMediumUrl(storedPhoto.thumbnailMediumUrl());
+	            }
 
-	            Vehicle updatedVehicle = vehicleRepository.save(vehicle);
+	            Vehicle updatedVehicle = transactionTemplate.execute(status -> {
+	                Vehicle saved = vehicleRepository.save(vehicle);
+	                outboxService.append(DomainEvent.VEHICLE_UPDATED, saved.getId(), OutboxService.payload(
+	                        "vehicleId", saved.getId(), "vehicleType", saved.getVehicleType(), "vehiclePrice", saved.getVehiclePrice(),
+	                        "vehiclePhotoUrl", saved.getVehiclePhotoUrl()));
+	                return saved;
+	            });
+	            vehicleAvailabilityIndex.putVehicle(updatedVehicle.getId(), updatedVehicle.getVehicleType());
+	            pricingEngine.putVehicle(updatedVehicle.getId(), updatedVehicle.getVehiclePrice());
+	            vehicleCatalogVersion.bump();
+	            vehicleVersions.bump(vehicleId);
 	            VehicleDTO vehicleDTO = Utils.mapVehicleEntityToVehicleDTO(updatedVehicle);
 
 	            response.setStatusCode(200);
@@ -144,7 +296,10 @@ public class VehicleService implements IVehicleService{
 	        return response;
 	    }
 
+	//the cached response includes the vehicle's bookings, so booking writes bump the vehicle's version as well
 	@Override
+	@Cacheable(cacheNames = Utils.VEHICLE_BY_ID_CACHE, key = "#vehicleId + ':' + @vehicleVersions.current(#vehicleId)",
+			unless = "#result.statusCode != 200")
 	public Response getVehicleById(Long vehicleId) {
 		
 		Response response = new Response();
@@ -178,9 +333,12 @@ public class VehicleService implements IVehicleService{
 		
 		try {
 			
-			List<Vehicle> availableVehicles = vehicleRepository.findAvailableVehicleByDatesAndTypes(checkInDate, checkOutDate, vehicleType);
+			String normalizedType = Utils.normalizeVehicleType(vehicleType);
+			List<Vehicle> availableVehicles = vehicleAvailabilityIndex.isReady()
+					? vehicleRepository.findAllById(vehicleAvailabilityIndex.findAvailableVehicleIds(checkInDate, checkOutDate, normalizedType))
+					: vehicleRepository.findAvailableVehicleByDatesAndTypes(checkInDate, checkOutDate, normalizedType);
 			List<VehicleDTO> vehicleDTOList = Utils.mapVehicleListEntityToVehicleListDTO(availableVehicles);
-			
+			setQuotedPrices(vehicleDTOList, checkInDate, checkOutDate);
 			
 			response.setStatusCode(200);
 			response.setMessage("Success");
@@ -192,6 +350,106 @@ public class VehicleService implements IVehicleService{
 		}
 		return response;
 	}
+	
+	//One page of the search in sort order. Only offset + size vehicles are ever held in order: a bounded
+	//max-heap keeps the best of them while the matches stream past, so the cost of a page does not
+	//depend on how many vehicles match. Sort keys come from the in-memory index and rate table.
+	@Override
+	public Response getAvailableVehiclesByDateAndTypes(LocalDate checkInDate, LocalDate checkOutDate,
+			String vehicleType, String sort, int offset, int size) {
+		
+		Response response = new Response();
+		
+		try {
+			
+			String normalizedType = Utils.normalizeVehicleType(vehicleType);
+			Comparator<RankedVehicle> order = searchOrder(sort);
+			int pageSize = Utils.clampPageSize(size);
+			List<Vehicle> pageVehicles;
+			int totalCount;
+			
+			if (vehicleAvailabilityIndex.isReady()) {
+				List<Long> availableIds = vehicleAvailabilityIndex.findAvailableVehicleIds(checkInDate, checkOutDate, normalizedType);
+				totalCount = availableIds.size();
+				int keep = offset + pageSize;
+				PriorityQueue<RankedVehicle> best = new PriorityQueue<>(Math.min(keep, Math.max(totalCount, 1)) + 1, order.reversed());
+				for (Long vehicleId : availableIds) {
+					Long dailyRateCents = pricingEngine.dailyRateCents(vehicleId);
+					best.add(new RankedVehicle(vehicleId, dailyRateCents == null ? Long.MAX_VALUE : dailyRateCents,
+							vehicleAvailabilityIndex.getVehicleType(vehicleId)));
+					if (best.size() > keep) best.poll();
+				}
+				List<RankedVehicle> ranked = new ArrayList<>(best);
+				ranked.sort(order);
+				List<Long> pageIds = ranked.subList(Math.min(offset, ranked.size()), ranked.size()).stream().map(RankedVehicle::id).toList();
+				
+				//findAllById does not keep the order of the ids
+				Map<Long, Vehicle> vehiclesById = vehicleRepository.findAllById(pageIds).stream()
+						.collect(Collectors.toMap(Vehicle::getId, Function.identity()));
+				pageVehicles = pageIds.stream().map(vehiclesById::get).filter(Objects::nonNull).toList();
+			} else {
+				List<Vehicle> availableVehicles = normalizedType == null
+						? vehicleRepository.findAvailableVehicleByDates(checkInDate, checkOutDate)
+						: vehicleRepository.findAvailableVehicleByDatesAndTypes(checkInDate, checkOutDate, normalizedType);
+				totalCount = availableVehicles.size();
+				pageVehicles = availableVehicles.stream()
+						.sorted(Comparator.comparing(vehicle -> new RankedVehicle(vehicle.getId(),
+								vehicle.getVehiclePrice() == null ? Long.MAX_VALUE : PricingEngine.toCents(vehicle.getVehiclePrice()),
+								vehicle.getVehicleType()), order))
+						.skip(offset)
+						.limit(pageSize)
+						.toList();
+			}
+			List<VehicleDTO> vehicleDTOList = Utils.mapVehicleListEntityToVehicleListDTO(pageVehicles);
+			setQuotedPrices(vehicleDTOList, checkInDate, checkOutDate);
+			
+			response.setStatusCode(200);
+			response.setMessage("Success");
+			response.setVehicleList(vehicleDTOList);
+			response.setTotalCount(totalCount);
+			
+		}catch (IllegalArgumentException e) {
+			response.setStatusCode(400);
+			response.setMessage(e.getMessage());
+		}
+		catch (Exception e) {
+			response.setStatusCode(500);
+			response.setMessage("Error getting vehicle by available dates and types" + e.getMessage());
+		}
+		return response;
+	}
+	
+	//every vehicle in a search shares the dates, so ordering by daily rate is ordering by quoted price
+	private record RankedVehicle(Long id, long dailyRateCents, String vehicleType) {}
+	
+	private static Comparator<RankedVehicle> searchOrder(String sort) {
+		Comparator<RankedVehicle> byId = Comparator.comparing(RankedVehicle::id);
+		Comparator<RankedVehicle> byPrice = Comparator.comparingLong(RankedVehicle::dailyRateCents);
+		if (sort == null || sort.isBlank()) {
+			return byId;
+		}
+		return switch (sort) {
+			case "price" -> byPrice.thenComparing(byId);
+			case "price_desc" -> byPrice.reversed().thenComparing(byId);
+			case "type" -> Comparator.comparing(RankedVehicle::vehicleType, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+					.thenComparing(byPrice).thenComparing(byId);
+			default -> throw new IllegalArgumentException("sort must be price, price_desc or type");
+		};
+	}
+	
+	//one prefix-sum lookup for the dates, then one multiply per vehicle
+	private void setQuotedPrices(List<VehicleDTO> vehicleDTOList, LocalDate checkInDate, LocalDate checkOutDate) {
+		long dayFactorBp = pricingEngine.dayFactorBp(checkInDate, checkOutDate);
+		for (VehicleDTO vehicleDTO : vehicleDTOList) {
+			Long dailyRateCents = pricingEngine.dailyRateCents(vehicleDTO.getId());
+			if (dailyRateCents == null && vehicleDTO.getVehiclePrice() != null) {
+				dailyRateCents = PricingEngine.toCents(vehicleDTO.getVehiclePrice());
+			}
+			if (dailyRateCents != null) {
+				vehicleDTO.setQuotedPrice(PricingEngine.fromCents(PricingEngine.rentalCents(dailyRateCents, dayFactorBp)));
+			}
+		}
+	}
 
 	@Override
 	public Response getAllAvailableVehicles() {
@@ -200,7 +458,10 @@ public class VehicleService implements IVehicleService{
 		
 		try {
 			
-			List<Vehicle> vehicleList = vehicleRepository.getAllAvailableVehicles();
+			LocalDate today = LocalDate.now();
+			List<Vehicle> vehicleList = vehicleAvailabilityIndex.isReady()
+					? vehicleRepository.findAllById(vehicleAvailabilityIndex.findVehicleIdsFreeFrom(today))
+					: vehicleRepository.getAllAvailableVehicles(today);
 			List<VehicleDTO> vehicleDTOList = Utils.mapVehicleListEntityToVehicleListDTO(vehicleList);
 			
 			response.setStatusCode(200);
@@ -218,4 +479,50 @@ public class VehicleService implements IVehicleService{
 		return response;
 	}
 
+
+	@Override
+	public Response getVehicleQuote(Long vehicleId, LocalDate checkInDate, LocalDate checkOutDate, int numOfMiles) {
+		
+		Response response = new Response();
+		
+		try {
+			
+			Long dailyRateCents = pricingEngine.dailyRateCents(vehicleId);
+			if (dailyRateCents == null) {
+				Vehicle vehicle = vehicleRepository.findById(vehicleId).orElseThrow(() -> new CustomException("Vehicle not found"));
+				if (vehicle.getVehiclePrice() == null) {
+					throw new CustomException("Vehicle has no price");
+				}
+				pricingEngine.putVehicle(vehicleId, vehicle.getVehiclePrice());
+				dailyRateCents = PricingEngine.toCents(vehicle.getVehiclePrice());
+			}
+			long days = checkOutDate.toEpochDay() - checkInDate.toEpochDay();
+			long rentalCents = PricingEngine.rentalCents(dailyRateCents, pricingEngine.dayFactorBp(checkInDate, checkOutDate));
+			long mileageCents = pricingEngine.mileageCents(numOfMiles, days);
+			
+			QuoteDTO quoteDTO = new QuoteDTO();
+			quoteDTO.setVehicleId(vehicleId);
+			quoteDTO.setCheckInDate(checkInDate);
+			quoteDTO.setCheckOutDate(checkOutDate);
+			quoteDTO.setNumOfDays((int) days);
+			quoteDTO.setNumOfMiles(numOfMiles);
+			quoteDTO.setDailyRate(PricingEngine.fromCents(dailyRateCents));
+			quoteDTO.setRentalAmount(PricingEngine.fromCents(rentalCents));
+			quoteDTO.setMileageAmount(PricingEngine.fromCents(mileageCents));
+			quoteDTO.setTotalAmount(PricingEngine.fromCents(rentalCents + mileageCents));
+			
+			response.setStatusCode(200);
+			response.setMessage("Success");
+			response.setQuote(quoteDTO);
+			
+		}catch(CustomException e) {
+			response.setStatusCode(404);
+			response.setMessage(e.getMessage());
+		}
+		catch (Exception e) {
+			response.setStatusCode(500);
+			response.setMessage("Error getting vehicle quote" + e.getMessage());
+		}
+		return response;
+	}
 }
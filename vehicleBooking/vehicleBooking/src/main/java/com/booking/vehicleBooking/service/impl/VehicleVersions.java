@@ -0,0 +1,32 @@
+package com.booking.vehicleBooking.service.impl;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.stereotype.Component;
+
+//Version stamps for single vehicles, striped by vehicle id like VehicleBookingLocks. The vehicleById
+//cache is keyed by vehicle id and version, and every write to a vehicle or its bookings bumps the
+//version once it has committed. A read that loaded the vehicle before the commit can still finish
+//its put afterwards, but only under the old key, which no later read asks for. Superseded entries
+//are left to the cache's size bound. Vehicles sharing a stripe only cost each other a miss.
+@Component
+public class VehicleVersions {
+
+	private static final int STRIPES = 1024;
+
+	private final AtomicLongArray versions = new AtomicLongArray(STRIPES);
+
+	public long current(Long vehicleId) {
+		return versions.get(stripeOf(vehicleId));
+	}
+
+	public void bump(Long vehicleId) {
+		versions.incrementAndGet(stripeOf(vehicleId));
+	}
+
+	private int stripeOf(Long vehicleId) {
+		int hash = Long.hashCode(vehicleId);
+		hash ^= (hash >>> 16);
+		return (hash & 0x7fffffff) % STRIPES;
+	}
+}
@@ -0,0 +1,10 @@
+package com.booking.vehicleBooking.service.interfac;
+
+import java.time.LocalDate;
+
+import com.booking.vehicleBooking.dto.Response;
+
+public interface IAnalyticsService {
+
+	Response getUtilization(LocalDate from, LocalDate to, String bucket);
+}
@@ -1,5 +1,10 @@
 package com.booking.vehicleBooking.service.interfac;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+import com.booking.vehicleBooking.dto.BookingRequest;
 import com.booking.vehicleBooking.dto.Response;
 import com.booking.vehicleBooking.entity.Booking;
 
@@ -7,9 +12,15 @@ public interface IBookingService {
 	
 	Response saveBooking(Long vehicleId, Long userId, Booking bookingRequest);
 	
+	Response saveBookings(Long userId, List<BookingRequest> bookingRequests);
+	
 	Response findBookingByConfirmationCode(String confirmationCode);
 	
 	Response getAllBookings();
 	
+	Response getAllBookings(Long lastSeenId, int size);
+	
+	void streamAllBookings(OutputStream outputStream) throws IOException;
+	
 	Response cancelBooking(Long bookingId);
 }
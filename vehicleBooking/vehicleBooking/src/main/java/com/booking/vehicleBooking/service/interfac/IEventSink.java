@@ -0,0 +1,11 @@
+package com.booking.vehicleBooking.service.interfac;
+
+import java.util.List;
+
+import com.booking.vehicleBooking.dto.DomainEvent;
+
+public interface IEventSink {
+
+	//must not return until the events are delivered; throwing leaves them in the outbox to be sent again
+	void publish(List<DomainEvent> events) throws Exception;
+}
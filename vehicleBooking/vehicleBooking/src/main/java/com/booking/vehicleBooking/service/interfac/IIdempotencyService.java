@@ -0,0 +1,13 @@
+package com.booking.vehicleBooking.service.interfac;
+
+import java.util.function.Supplier;
+
+import com.booking.vehicleBooking.dto.Response;
+
+public interface IIdempotencyService {
+
+	//the response, and whether it is a stored one given back without running the request again
+	record IdempotentResponse(Response response, boolean replayed) {}
+
+	IdempotentResponse execute(String idempotencyKey, String requestFingerprint, Supplier<Response> request);
+}
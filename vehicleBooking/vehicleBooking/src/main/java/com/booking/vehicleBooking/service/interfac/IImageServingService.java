@@ -0,0 +1,13 @@
+package com.booking.vehicleBooking.service.interfac;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+//Image storage that serves photos through this application rather than from their own URL
+public interface IImageServingService {
+	
+	//Size in bytes of a stored image, or -1 if there is no such image
+	long imageSize(String key);
+	
+	long transferImage(String key, WritableByteChannel target) throws IOException;
+}
@@ -0,0 +1,15 @@
+package com.booking.vehicleBooking.service.interfac;
+
+import java.nio.file.Path;
+
+//Where vehicle photos live. Selected with the image.storage property (s3 or local).
+public interface IImageStorageService {
+	
+	//Stores the file under key and returns the URL clients load it from once it is stored.
+	//The storage takes ownership of the file and removes it once stored.
+	String saveImage(String key, Path file, String contentType);
+	
+	boolean imageExists(String key);
+	
+	String imageUrl(String key);
+}
@@ -0,0 +1,10 @@
+package com.booking.vehicleBooking.service.interfac;
+
+import java.io.InputStream;
+
+import com.booking.vehicleBooking.dto.Response;
+
+public interface IVehicleImportService {
+
+	Response importVehicles(InputStream inputStream, String contentType);
+}
@@ -1,5 +1,7 @@
 package com.booking.vehicleBooking.service.interfac;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
@@ -15,6 +17,10 @@ public interface IVehicleService {
 	
 	Response getAllVehicles();
 	
+	Response getAllVehicles(Long lastSeenId, int size);
+	
+	void streamAllVehicles(OutputStream outputStream) throws IOException;
+	
 	List<String> getAllVehicleTypes();
 	
 	Response deleteVehicle(Long vehicleId);
@@ -25,5 +31,9 @@ public interface IVehicleService {
 	
 	Response getAvailableVehiclesByDateAndTypes(LocalDate checkInDate, LocalDate checkOutDate, String vehicleType);
 	
+	Response getAvailableVehiclesByDateAndTypes(LocalDate checkInDate, LocalDate checkOutDate, String vehicleType, String sort, int offset, int size);
+	
 	Response getAllAvailableVehicles();
+	
+	Response getVehicleQuote(Long vehicleId, LocalDate checkInDate, LocalDate checkOutDate, int numOfMiles);
 }
@@ -1,6 +1,9 @@
 package com.booking.vehicleBooking.utils;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
@@ -8,6 +11,7 @@ import org.springframework.stereotype.Service;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Base64;
 import java.util.Date;
 import java.util.function.Function;
@@ -17,13 +21,23 @@ public class JWTUtils {
 
 
     private static final long EXPIRATION_TIME = 1000 * 60 * 24 * 7; //for 7 days
+    private static final int MAX_CACHED_TOKENS = 10_000;
+    private static final Duration CACHED_CLAIMS_TTL = Duration.ofMinutes(10);
 
     private final SecretKey Key;
+    private final JwtParser jwtParser;
+
+    //verified claims by token, an entry is only served until the token's expiration
+    private final Cache<String, Claims> verifiedClaims = Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_TOKENS)
+            .expireAfterWrite(CACHED_CLAIMS_TTL)
+            .build();
 
     public JWTUtils() {
         String secreteString = "843567893696976453275974432697R634976R738467TR678T34865R6834R8763T478378637664538745673865783678548735687R3";
         byte[] keyBytes = Base64.getDecoder().decode(secreteString.getBytes(StandardCharsets.UTF_8));
         this.Key = new SecretKeySpec(keyBytes, "HmacSHA256");
+        this.jwtParser = Jwts.parser().verifyWith(Key).build();
 
     }
 
@@ -40,16 +54,32 @@ public class JWTUtils {
         return extractClaims(token, Claims::getSubject);
     }
 
+    //Signature is verified the first time a token is seen, repeat calls are a cache lookup
+    public Claims extractAllClaims(String token) {
+        Claims claims = verifiedClaims.getIfPresent(token);
+        if (claims != null) {
+            if (claims.getExpiration().after(new Date())) {
+                return claims;
+            }
+            verifiedClaims.invalidate(token);
+        }
+
+        claims = jwtParser.parseSignedClaims(token).getPayload();
+        if (claims.getExpiration() != null) {
+            verifiedClaims.put(token, claims);
+        }
+        return claims;
+    }
+
     private <T> T extractClaims(String token, Function<Claims, T> claimsTFunction) {
-        return claimsTFunction.apply(Jwts.parser().verifyWith(Key).build().parseSignedClaims(token).getPayload());
+        return claimsTFunction.apply(extractAllClaims(token));
     }
 
     public boolean isValidToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return isValidToken(extractAllClaims(token), userDetails);
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractClaims(token, Claims::getExpiration).before(new Date());
+    public boolean isValidToken(Claims claims, UserDetails userDetails) {
+        return (claims.getSubject().equals(userDetails.getUsername()) && !claims.getExpiration().before(new Date()));
     }
-}
\ No newline at end of file
+}
@@ -13,18 +13,61 @@ import com.booking.vehicleBooking.entity.Vehicle;
 
 public class Utils {
 	
-	private static final String ALPHANUMERIC_STRING = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+	private static final char[] ALPHANUMERIC_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789".toCharArray();
 	private static final SecureRandom secureRandom = new SecureRandom();
 	
+	//36^12 is the largest power of 36 below 2^63, so up to 12 characters come from a single draw
+	private static final int CODE_CHARS_PER_DRAW = 12;
+	private static final long[] POWERS_OF_36 = new long[CODE_CHARS_PER_DRAW + 1];
+	static {
+		POWERS_OF_36[0] = 1;
+		for (int i = 1; i <= CODE_CHARS_PER_DRAW; i++) {
+			POWERS_OF_36[i] = POWERS_OF_36[i - 1] * ALPHANUMERIC_CHARS.length;
+		}
+	}
+	
+	public static final int DEFAULT_PAGE_SIZE = 50;
+	public static final int MAX_PAGE_SIZE = 500;
+	public static final int STREAM_BATCH_SIZE = 500;
+	public static final int MAX_SEARCH_OFFSET = 10_000;
+	//longest check in to check out span a search or quote accepts
+	public static final int MAX_DATE_RANGE_DAYS = 365;
+	public static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+	
+	public static final String VEHICLES_CACHE = "vehicles";
+	public static final String VEHICLE_TYPES_CACHE = "vehicleTypes";
+	public static final String VEHICLE_BY_ID_CACHE = "vehicleById";
+	
+	//One uniform draw below 36^n (SecureRandom rejects out-of-range values, so there is no modulo bias)
+	//written out as n base-36 digits. Uniqueness is checked by the caller against the unique index.
 	public static String generateRandomConfirmationCode(int length) {
-		StringBuilder stringBuilder = new StringBuilder();
-		for(int i = 0; i < length; i++) {
-			int randomIndex = secureRandom.nextInt(ALPHANUMERIC_STRING.length());
-			char randomChar = ALPHANUMERIC_STRING.charAt(randomIndex);
-			stringBuilder.append(randomChar);
+		char[] code = new char[length];
+		int end = length;
+		while (end > 0) {
+			int digits = Math.min(CODE_CHARS_PER_DRAW, end);
+			long value = secureRandom.nextLong(POWERS_OF_36[digits]);
+			for (int i = 0; i < digits; i++) {
+				code[--end] = ALPHANUMERIC_CHARS[(int) (value % ALPHANUMERIC_CHARS.length)];
+				value /= ALPHANUMERIC_CHARS.length;
+			}
 		}
-		
-		return stringBuilder.toString();
+		return new String(code);
+	}
+	
+	public static boolean isSupportedImageType(String contentType) {
+		return contentType != null && (contentType.equals("image/jpeg")
+				|| contentType.equals("image/png")
+				|| contentType.equals("image/jpg"));
+	}
+	
+	//"  mini   van " and "mini van" are one type: trimmed with inner whitespace collapsed, null when blank
+	public static String normalizeVehicleType(String vehicleType) {
+		if (vehicleType == null || vehicleType.isBlank()) return null;
+		return vehicleType.trim().replaceAll("\\s+", " ");
+	}
+	
+	public static int clampPageSize(int size) {
+		return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
 	}
 	
 	//Map user entity to user DTO
@@ -47,6 +90,8 @@ public class Utils {
 		vehicleDTO.setVehicleType(vehicle.getVehicleType());
 		vehicleDTO.setVehiclePrice(vehicle.getVehiclePrice());
 		vehicleDTO.setVehiclePhotoUrl(vehicle.getVehiclePhotoUrl());
+		vehicleDTO.setVehicleThumbnailSmallUrl(vehicle.getVehicleThumbnailSmallUrl());
+		vehicleDTO.setVehicleThumbnailMediumUrl(vehicle.getVehicleThumbnailMediumUrl());
 		vehicleDTO.setVehicleDescription(vehicle.getVehicleDescription());
 		return vehicleDTO; 
 	}
@@ -70,6 +115,8 @@ public class Utils {
 	    vehicleDTO.setVehicleType(vehicle.getVehicleType());
 	    vehicleDTO.setVehiclePrice(vehicle.getVehiclePrice());
 	    vehicleDTO.setVehiclePhotoUrl(vehicle.getVehiclePhotoUrl());
+	    vehicleDTO.setVehicleThumbnailSmallUrl(vehicle.getVehicleThumbnailSmallUrl());
+	    vehicleDTO.setVehicleThumbnailMediumUrl(vehicle.getVehicleThumbnailMediumUrl());
 	    vehicleDTO.setVehicleDescription(vehicle.getVehicleDescription());
 	    
 	    if (vehicle.getBookings() != null) {
@@ -117,6 +164,8 @@ public class Utils {
 	    	    vehicleDTO.setVehicleType(booking.getVehicle().getVehicleType());
 	    	    vehicleDTO.setVehiclePrice(booking.getVehicle().getVehiclePrice());
 	    	    vehicleDTO.setVehiclePhotoUrl(booking.getVehicle().getVehiclePhotoUrl());
+	    	    vehicleDTO.setVehicleThumbnailSmallUrl(booking.getVehicle().getVehicleThumbnailSmallUrl());
+	    	    vehicleDTO.setVehicleThumbnailMediumUrl(booking.getVehicle().getVehicleThumbnailMediumUrl());
 	    	    vehicleDTO.setVehicleDescription(booking.getVehicle().getVehicleDescription());
 	    	    
 	    	    bookingDTO.setVehicle(vehicleDTO);
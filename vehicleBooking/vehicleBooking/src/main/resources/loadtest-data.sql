@@ -0,0 +1,6 @@
+INSERT INTO vehicles (vehicle_type, vehicle_price, vehicle_photo_url, vehicle_description)
+SELECT CASE MOD(X, 4) WHEN 0 THEN 'Sedan' WHEN 1 THEN 'SUV' WHEN 2 THEN 'Truck' ELSE 'Van' END,
+       20 + MOD(X * 37, 180),
+       'http://localhost:4040/vehicles/photo/loadtest.jpg',
+       CONCAT('Load test vehicle ', X)
+FROM SYSTEM_RANGE(1, 1000);
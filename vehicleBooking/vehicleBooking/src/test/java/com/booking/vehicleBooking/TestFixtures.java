@@ -0,0 +1,45 @@
+package com.booking.vehicleBooking;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.booking.vehicleBooking.entity.User;
+import com.booking.vehicleBooking.entity.Vehicle;
+import com.booking.vehicleBooking.repo.UserRepository;
+import com.booking.vehicleBooking.repo.VehicleRepository;
+
+//Rows for the @ActiveProfiles("test") tests. The test classes share one database, so every user
+//gets an email no other test uses.
+@Component
+public class TestFixtures {
+
+	private static final AtomicInteger sequence = new AtomicInteger();
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private VehicleRepository vehicleRepository;
+
+	public User saveUser() {
+		int n = sequence.incrementAndGet();
+		User user = new User();
+		user.setEmail("user" + n + "@example.com");
+		user.setName("User " + n);
+		user.setPhoneNumber(String.format("555%04d", n));
+		user.setPassword("secret");
+		user.setRole("USER");
+		return userRepository.save(user);
+	}
+
+	public Vehicle saveVehicle(String vehicleType, int price) {
+		Vehicle vehicle = new Vehicle();
+		vehicle.setVehicleType(vehicleType);
+		vehicle.setVehiclePrice(BigDecimal.valueOf(price));
+		vehicle.setVehiclePhotoUrl(vehicleType.toLowerCase() + ".jpg");
+		return vehicleRepository.save(vehicle);
+	}
+}
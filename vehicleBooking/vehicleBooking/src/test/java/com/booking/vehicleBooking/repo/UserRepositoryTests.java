@@ -0,0 +1,75 @@
+package com.booking.vehicleBooking.repo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import com.booking.vehicleBooking.dto.UserDTO;
+import com.booking.vehicleBooking.entity.Booking;
+import com.booking.vehicleBooking.entity.User;
+import com.booking.vehicleBooking.entity.Vehicle;
+import com.booking.vehicleBooking.utils.Utils;
+
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class UserRepositoryTests {
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Test
+	void bookingHistoryWithVehiclesLoadsInOneQuery() {
+		User user = new User();
+		user.setEmail("history@example.com");
+		user.setName("History");
+		user.setPhoneNumber("5550100");
+		user.setPassword("secret");
+		user.setRole("USER");
+		entityManager.persist(user);
+
+		LocalDate checkIn = LocalDate.now().plusDays(1);
+		for (int i = 0; i < 3; i++) {
+			Vehicle vehicle = new Vehicle();
+			vehicle.setVehicleType("Sedan");
+			vehicle.setVehiclePrice(BigDecimal.valueOf(50 + i));
+			entityManager.persist(vehicle);
+
+			for (int j = 0; j < 2; j++) {
+				Booking booking = new Booking();
+				booking.setCheckInDate(checkIn.plusDays(10L * j));
+				booking.setCheckOutDate(checkIn.plusDays(10L * j + 2));
+				booking.setNumOfPassengers(1);
+				booking.setBookingConfirmationCode("CODE" + i + j);
+				booking.setUser(user);
+				booking.setVehicle(vehicle);
+				entityManager.persist(booking);
+			}
+		}
+		entityManager.flush();
+		entityManager.clear();
+
+		Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+				.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		User loaded = userRepository.findByIdWithBookingsAndVehicles(user.getId()).orElseThrow();
+		UserDTO userDTO = Utils.mapUserEntityToUserDTOPlusUserBookingsAndRoom(loaded);
+
+		assertEquals(6, userDTO.getBookings().size());
+		assertEquals("Sedan", userDTO.getBookings().get(0).getVehicle().getVehicleType());
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+}
@@ -0,0 +1,72 @@
+package com.booking.vehicleBooking.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class RateLimitFilterTests {
+
+	//one token a second, up to three at once
+	private static final long EMISSION = TimeUnit.SECONDS.toNanos(1);
+	private static final long START = 1_000_000_000_000L;
+
+	private final RateLimitFilter.RouteGroup group = new RateLimitFilter.RouteGroup("test", List.of("/test/**"),
+			EMISSION, 3 * EMISSION, new ConcurrentHashMap<>());
+
+	@Test
+	void burstIsAllowedThenTheWaitIsOneToken() {
+		assertEquals(0, group.tryAcquire("user:a", START, 100));
+		assertEquals(0, group.tryAcquire("user:a", START, 100));
+		assertEquals(0, group.tryAcquire("user:a", START, 100));
+
+		assertEquals(EMISSION, group.tryAcquire("user:a", START, 100));
+		//a rejected request takes nothing, so the wait shrinks with time
+		assertEquals(EMISSION / 2, group.tryAcquire("user:a", START + EMISSION / 2, 100));
+	}
+
+	@Test
+	void tokensRefillAtTheRateAndNeverPastTheBurst() {
+		for (int i = 0; i < 3; i++) {
+			group.tryAcquire("user:a", START, 100);
+		}
+
+		assertEquals(0, group.tryAcquire("user:a", START + EMISSION, 100));
+		assertEquals(EMISSION, group.tryAcquire("user:a", START + EMISSION, 100));
+
+		//idle far longer than the burst: still only three in a row
+		long later = START + 100 * EMISSION;
+		for (int i = 0; i < 3; i++) {
+			assertEquals(0, group.tryAcquire("user:a", later, 100));
+		}
+		assertEquals(EMISSION, group.tryAcquire("user:a", later, 100));
+	}
+
+	@Test
+	void keysHaveTheirOwnBuckets() {
+		for (int i = 0; i < 3; i++) {
+			group.tryAcquire("user:a", START, 100);
+		}
+
+		assertEquals(0, group.tryAcquire("user:b", START, 100));
+		assertEquals(0, group.tryAcquire("ip:10.0.0.1", START, 100));
+	}
+
+	@Test
+	void newKeysShareOneBucketOnceTheLimitIsReached() {
+		group.tryAcquire("user:a", START, 2);
+		group.tryAcquire("user:b", START, 2);
+
+		for (int i = 0; i < 3; i++) {
+			assertEquals(0, group.tryAcquire("user:c", START, 2));
+		}
+		//user:d lands in the same overflow bucket user:c emptied
+		assertEquals(EMISSION, group.tryAcquire("user:d", START, 2));
+		//keys that had a bucket keep it
+		assertEquals(0, group.tryAcquire("user:a", START, 2));
+		assertEquals(3, group.buckets().size());
+	}
+}
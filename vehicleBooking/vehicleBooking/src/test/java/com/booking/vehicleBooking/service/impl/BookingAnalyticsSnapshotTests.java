@@ -0,0 +1,109 @@
+package com.booking.vehicleBooking.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.booking.vehicleBooking.repo.BookingRepository;
+
+class BookingAnalyticsSnapshotTests {
+
+	private static final LocalDate CHECK_IN = LocalDate.of(2040, 3, 6);
+
+	private BookingRepository bookingRepository;
+	private PricingEngine pricingEngine;
+	private BookingAnalyticsSnapshot snapshot;
+
+	@BeforeEach
+	void setUp() {
+		bookingRepository = mock(BookingRepository.class);
+		when(bookingRepository.findAnalyticsRowsAfter(anyLong(), any(Limit.class))).thenReturn(List.of());
+		when(bookingRepository.findAnalyticsRowsByIds(anyCollection())).thenReturn(List.of());
+
+		pricingEngine = new PricingEngine();
+		ReflectionTestUtils.setField(pricingEngine, "weekendMultiplierBp", 10000L);
+		ReflectionTestUtils.setField(pricingEngine, "seasonsProperty", "");
+		ReflectionTestUtils.setField(pricingEngine, "includedMilesPerDay", 200L);
+		ReflectionTestUtils.setField(pricingEngine, "mileageTiersProperty", "*:0.25");
+		pricingEngine.parseRateTables();
+		pricingEngine.putVehicle(7L, new BigDecimal("50.00"));
+
+		snapshot = new BookingAnalyticsSnapshot();
+		ReflectionTestUtils.setField(snapshot, "bookingRepository", bookingRepository);
+		ReflectionTestUtils.setField(snapshot, "pricingEngine", pricingEngine);
+	}
+
+	@Test
+	void skippedIdCommittedLaterIsInsertedInOrder() {
+		when(bookingRepository.findAnalyticsRowsAfter(eq(0L), any(Limit.class))).thenReturn(List.of(row(1), row(2), row(4)));
+		BookingAnalyticsSnapshot.Columns first = snapshot.refresh();
+		assertEquals(3, first.size());
+
+		//booking 3 commits after 4 was loaded, below the last loaded id: only the gap lookup finds it
+		when(bookingRepository.findAnalyticsRowsByIds(List.of(3L))).thenReturn(List.<Object[]>of(row(3)));
+		BookingAnalyticsSnapshot.Columns second = snapshot.refresh();
+
+		assertEquals(4, second.size());
+		assertArrayEquals(new long[] {1, 2, 3, 4}, Arrays.copyOf(second.bookingIds(), 4));
+		//the columns handed out before were copied, not shifted underneath their reader
+		assertArrayEquals(new long[] {1, 2, 4}, Arrays.copyOf(first.bookingIds(), 3));
+
+		//once found, the gap is no longer looked up
+		assertEquals(4, snapshot.refresh().size());
+		verify(bookingRepository, times(2)).findAnalyticsRowsByIds(List.of(3L));
+	}
+
+	@Test
+	void cancellationsAreTombstonedOnTheNextRefresh() {
+		when(bookingRepository.findAnalyticsRowsAfter(eq(0L), any(Limit.class))).thenReturn(List.of(row(1), row(2), row(3)));
+		snapshot.refresh();
+
+		snapshot.markCancelled(2L);
+		//unknown ids are dropped rather than kept for later
+		snapshot.markCancelled(99L);
+		BookingAnalyticsSnapshot.Columns columns = snapshot.refresh();
+
+		assertEquals(3, columns.size());
+		assertFalse(columns.cancelled()[0]);
+		assertTrue(columns.cancelled()[1]);
+		assertFalse(columns.cancelled()[2]);
+	}
+
+	@Test
+	void storedTotalIsUsedAndOlderBookingsAreEstimated() {
+		Object[] quoted = row(1);
+		quoted[6] = 12345L;
+		when(bookingRepository.findAnalyticsRowsAfter(eq(0L), any(Limit.class))).thenReturn(List.of(quoted, row(2)));
+		BookingAnalyticsSnapshot.Columns columns = snapshot.refresh();
+
+		//the stored total wins over today's 3 x 50.00 + mileage
+		assertEquals(12345L, columns.revenueCents()[0]);
+		//3 days at 50.00, 700 miles of which 100 are over the included 600
+		assertEquals(3 * 5000 + 100 * 25, columns.revenueCents()[1]);
+	}
+
+	private static Object[] row(long bookingId) {
+		return new Object[] {bookingId, 7L, CHECK_IN, CHECK_IN.plusDays(3), 700,
+				LocalDateTime.of(2040, 3, 1, 12, 0), null};
+	}
+}
@@ -0,0 +1,106 @@
+package com.booking.vehicleBooking.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.booking.vehicleBooking.TestFixtures;
+import com.booking.vehicleBooking.dto.BookingRequest;
+import com.booking.vehicleBooking.dto.Response;
+import com.booking.vehicleBooking.entity.Booking;
+import com.booking.vehicleBooking.repo.BookingRepository;
+import com.booking.vehicleBooking.service.interfac.IBookingService;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BookingServiceBatchTests {
+
+	@Autowired
+	private IBookingService bookingService;
+
+	@Autowired
+	private BookingRepository bookingRepository;
+
+	@Autowired
+	private TestFixtures testFixtures;
+
+	private Long userId;
+	private Long sedanId;
+	private Long vanId;
+	private LocalDate base;
+
+	@BeforeEach
+	void setUp() {
+		userId = testFixtures.saveUser().getId();
+		sedanId = testFixtures.saveVehicle("Sedan", 40).getId();
+		vanId = testFixtures.saveVehicle("Van", 40).getId();
+		base = LocalDate.now().plusDays(30);
+	}
+
+	@Test
+	void batchIsWrittenTogether() {
+		Response response = bookingService.saveBookings(userId, List.of(
+				request(sedanId, 0, 3), request(vanId, 0, 3),
+				//check out and check in on the same day do not overlap
+				request(sedanId, 3, 5)));
+
+		assertEquals(200, response.getStatusCode(), response.getMessage());
+		assertEquals(3, response.getBookingList().size());
+		assertNotEquals(response.getBookingList().get(0).getBookingConfirmationCode(),
+				response.getBookingList().get(2).getBookingConfirmationCode());
+		assertEquals(2, rangesOf(sedanId));
+		assertEquals(1, rangesOf(vanId));
+	}
+
+	@Test
+	void oneBookedVehicleRejectsTheWholeBatch() {
+		Booking existing = new Booking();
+		existing.setCheckInDate(base);
+		existing.setCheckOutDate(base.plusDays(3));
+		existing.setNumOfPassengers(1);
+		assertEquals(200, bookingService.saveBooking(sedanId, userId, existing).getStatusCode());
+
+		Response response = bookingService.saveBookings(userId, List.of(request(vanId, 0, 2), request(sedanId, 2, 4)));
+
+		assertEquals(404, response.getStatusCode());
+		assertEquals(1, rangesOf(sedanId));
+		assertEquals(0, rangesOf(vanId));
+	}
+
+	@Test
+	void overlapInsideTheRequestIsRejected() {
+		Response response = bookingService.saveBookings(userId, List.of(request(vanId, 0, 3), request(vanId, 2, 4)));
+
+		assertEquals(400, response.getStatusCode());
+		assertEquals(0, rangesOf(vanId));
+	}
+
+	@Test
+	void unknownVehicleRejectsTheWholeBatch() {
+		Response response = bookingService.saveBookings(userId, List.of(request(vanId, 0, 2), request(Long.MAX_VALUE, 0, 2)));
+
+		assertEquals(404, response.getStatusCode());
+		assertEquals(0, rangesOf(vanId));
+	}
+
+	private BookingRequest request(Long vehicleId, int checkInOffset, int checkOutOffset) {
+		BookingRequest request = new BookingRequest();
+		request.setVehicleId(vehicleId);
+		request.setCheckInDate(base.plusDays(checkInOffset));
+		request.setCheckOutDate(base.plusDays(checkOutOffset));
+		request.setNumOfPassengers(1);
+		return request;
+	}
+
+	private int rangesOf(Long vehicleId) {
+		return bookingRepository.findBookingRangesOverlapping(List.of(vehicleId), base.minusDays(1), base.plusDays(10)).size();
+	}
+}
@@ -0,0 +1,147 @@
+package com.booking.vehicleBooking.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.booking.vehicleBooking.dto.Response;
+import com.booking.vehicleBooking.repo.IdempotencyRecordRepository;
+import com.booking.vehicleBooking.service.interfac.IIdempotencyService.IdempotentResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+//the expiry tests put records 1 and 25 hours in the past
+@SpringBootTest(properties = "idempotency.ttl-hours=24")
+@ActiveProfiles("test")
+class IdempotencyServiceTests {
+
+	@Autowired
+	private IdempotencyService idempotencyService;
+
+	@Autowired
+	private IdempotencyRecordRepository idempotencyRecordRepository;
+
+	@Test
+	void retryIsReplayedWithoutRunningAgain() {
+		AtomicInteger runs = new AtomicInteger();
+
+		IdempotentResponse first = idempotencyService.execute("replay", "fingerprint", counting(runs, 200));
+		IdempotentResponse second = idempotencyService.execute("replay", "fingerprint", counting(runs, 200));
+
+		assertFalse(first.replayed());
+		assertTrue(second.replayed());
+		assertEquals(200, second.response().getStatusCode());
+		assertEquals(1, runs.get());
+	}
+
+	@Test
+	void completedRecordIsReplayedFromTheTable() {
+		//as written by another instance, so it is not in this instance's cache
+		idempotencyRecordRepository.claim("other-instance", "fingerprint", LocalDateTime.now());
+		idempotencyRecordRepository.complete("other-instance", 200, "{\"statusCode\":200,\"message\":\"booked elsewhere\"}");
+		AtomicInteger runs = new AtomicInteger();
+
+		IdempotentResponse result = idempotencyService.execute("other-instance", "fingerprint", counting(runs, 200));
+
+		assertTrue(result.replayed());
+		assertEquals("booked elsewhere", result.response().getMessage());
+		assertEquals(0, runs.get());
+	}
+
+	@Test
+	void keyReusedForAnotherRequestIsRejected() {
+		AtomicInteger runs = new AtomicInteger();
+		idempotencyService.execute("reused", "fingerprint", counting(runs, 200));
+
+		IdempotentResponse result = idempotencyService.execute("reused", "other fingerprint", counting(runs, 200));
+
+		assertEquals(422, result.response().getStatusCode());
+		assertEquals(1, runs.get());
+	}
+
+	@Test
+	void unfinishedClaimAnswers409() {
+		//claimed long ago and never completed: the request may have run, so it is not taken over
+		idempotencyRecordRepository.claim("pending", "fingerprint", LocalDateTime.now().minusHours(1));
+		AtomicInteger runs = new AtomicInteger();
+
+		IdempotentResponse result = idempotencyService.execute("pending", "fingerprint", counting(runs, 200));
+
+		assertEquals(409, result.response().getStatusCode());
+		assertEquals(0, runs.get());
+	}
+
+	@Test
+	void expiredRecordIsClaimedAgain() {
+		idempotencyRecordRepository.claim("expired", "old fingerprint", LocalDateTime.now().minusHours(25));
+		idempotencyRecordRepository.complete("expired", 200, "{\"statusCode\":200}");
+		AtomicInteger runs = new AtomicInteger();
+
+		IdempotentResponse result = idempotencyService.execute("expired", "fingerprint", counting(runs, 201));
+
+		assertFalse(result.replayed());
+		assertEquals(201, result.response().getStatusCode());
+		assertEquals(1, runs.get());
+		assertTrue(idempotencyService.execute("expired", "fingerprint", counting(runs, 201)).replayed());
+	}
+
+	@Test
+	void serverErrorReleasesTheKey() {
+		AtomicInteger runs = new AtomicInteger();
+
+		assertEquals(500, idempotencyService.execute("server-error", "fingerprint", counting(runs, 500)).response().getStatusCode());
+		IdempotentResponse retry = idempotencyService.execute("server-error", "fingerprint", counting(runs, 200));
+
+		assertFalse(retry.replayed());
+		assertEquals(200, retry.response().getStatusCode());
+		assertEquals(2, runs.get());
+	}
+
+	@Test
+	void failedCompletionKeepsTheClaim() {
+		IdempotencyRecordRepository repository = mock(IdempotencyRecordRepository.class);
+		doThrow(new DataAccessResourceFailureException("connection lost")).when(repository).complete(anyString(), anyInt(), any());
+		IdempotencyService service = new IdempotencyService();
+		ReflectionTestUtils.setField(service, "idempotencyRecordRepository", repository);
+		ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+		ReflectionTestUtils.setField(service, "ttlHours", 24L);
+		ReflectionTestUtils.setField(service, "cacheSize", 100);
+		service.createCache();
+		AtomicInteger runs = new AtomicInteger();
+
+		IdempotentResponse result = service.execute("lost-completion", "fingerprint", counting(runs, 200));
+
+		//the booking went through, so the caller still gets it and the claim is never released
+		assertEquals(200, result.response().getStatusCode());
+		verify(repository, never()).deleteById(anyString());
+		assertTrue(service.execute("lost-completion", "fingerprint", counting(runs, 200)).replayed());
+		assertEquals(1, runs.get());
+	}
+
+	private static Supplier<Response> counting(AtomicInteger runs, int statusCode) {
+		return () -> {
+			runs.incrementAndGet();
+			Response response = new Response();
+			response.setStatusCode(statusCode);
+			response.setMessage("run " + runs.get());
+			return response;
+		};
+	}
+}
@@ -0,0 +1,153 @@
+package com.booking.vehicleBooking.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.notNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.booking.vehicleBooking.dto.DomainEvent;
+import com.booking.vehicleBooking.entity.OutboxEvent;
+import com.booking.vehicleBooking.repo.OutboxEventRepository;
+import com.booking.vehicleBooking.service.interfac.IEventSink;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class OutboxDispatcherTests {
+
+	private static final long DISPATCH_INTERVAL_MS = 1000;
+	private static final long MAX_BACKOFF_MS = 3000;
+
+	private OutboxEventRepository outboxEventRepository;
+	private SimpleMeterRegistry meterRegistry;
+	private ScriptedSink sink;
+	private OutboxDispatcher dispatcher;
+	private List<OutboxEvent> batch;
+
+	@BeforeEach
+	void setUp() {
+		batch = List.of(event(1), event(2), event(3));
+		outboxEventRepository = mock(OutboxEventRepository.class);
+		when(outboxEventRepository.findByPublishedAtIsNullAndParkedAtIsNullOrderByIdAsc(any(Limit.class))).thenReturn(batch);
+		meterRegistry = new SimpleMeterRegistry();
+		sink = new ScriptedSink();
+
+		dispatcher = new OutboxDispatcher();
+		ReflectionTestUtils.setField(dispatcher, "outboxEventRepository", outboxEventRepository);
+		ReflectionTestUtils.setField(dispatcher, "eventSinks", List.of(sink));
+		ReflectionTestUtils.setField(dispatcher, "meterRegistry", meterRegistry);
+		ReflectionTestUtils.setField(dispatcher, "batchSize", 100);
+		ReflectionTestUtils.setField(dispatcher, "maxAttempts", 3);
+		ReflectionTestUtils.setField(dispatcher, "dispatchIntervalMs", DISPATCH_INTERVAL_MS);
+		ReflectionTestUtils.setField(dispatcher, "maxBackoffMs", MAX_BACKOFF_MS);
+	}
+
+	@Test
+	void sinkThatFailsOnceGetsTheBatchOneEventAtATime() {
+		sink.failuresLeft = 1;
+
+		dispatcher.dispatch();
+
+		assertEquals(List.of(List.of(1L, 2L, 3L), List.of(1L), List.of(2L), List.of(3L)), sink.calls);
+		for (long id = 1; id <= 3; id++) {
+			verify(outboxEventRepository).markPublished(eq(List.of(id)), any(LocalDateTime.class));
+		}
+		verify(outboxEventRepository, never()).recordFailedAttempt(anyLong(), anyInt(), any());
+		assertEquals(1, meterRegistry.counter("vehicle.booking.outbox.failures").count());
+		assertEquals(3, meterRegistry.counter("vehicle.booking.outbox.published").count());
+		assertEquals(0L, (Long) ReflectionTestUtils.getField(dispatcher, "retryAtMillis"));
+	}
+
+	@Test
+	void sinkThatAlwaysFailsBacksOffAndParksEventsOutOfAttempts() {
+		sink.failuresLeft = Integer.MAX_VALUE;
+
+		long before = System.currentTimeMillis();
+		dispatcher.dispatch();
+		assertBackedOffBy(DISPATCH_INTERVAL_MS * 2, before);
+		//the first event takes the attempt, the ones behind it wait
+		verify(outboxEventRepository).recordFailedAttempt(eq(1L), eq(1), isNull());
+		assertEquals(List.of(List.of(1L, 2L, 3L), List.of(1L)), sink.calls);
+
+		//backing off: nothing is read or sent
+		dispatcher.dispatch();
+		verify(outboxEventRepository, times(1)).findByPublishedAtIsNullAndParkedAtIsNullOrderByIdAsc(any(Limit.class));
+
+		//the backoff runs out with the first event on its last attempt
+		batch.get(0).setAttempts(2);
+		ReflectionTestUtils.setField(dispatcher, "retryAtMillis", 0L);
+		before = System.currentTimeMillis();
+		dispatcher.dispatch();
+		verify(outboxEventRepository).recordFailedAttempt(eq(1L), eq(3), notNull());
+		verify(outboxEventRepository).recordFailedAttempt(eq(2L), eq(1), isNull());
+		assertEquals(1, meterRegistry.counter("vehicle.booking.outbox.parked").count());
+		//doubled again, but capped
+		assertBackedOffBy(MAX_BACKOFF_MS, before);
+
+		verify(outboxEventRepository, never()).markPublished(anyCollection(), any(LocalDateTime.class));
+		verify(outboxEventRepository, never()).recordFailedAttempt(eq(3L), anyInt(), any());
+	}
+
+	@Test
+	void successfulRunEndsTheBackoff() {
+		sink.failuresLeft = 2;
+		dispatcher.dispatch();
+		assertEquals(1, (int) ReflectionTestUtils.getField(dispatcher, "consecutiveFailures"));
+
+		ReflectionTestUtils.setField(dispatcher, "retryAtMillis", 0L);
+		dispatcher.dispatch();
+
+		verify(outboxEventRepository).markPublished(eq(List.of(1L, 2L, 3L)), any(LocalDateTime.class));
+		assertEquals(0, (int) ReflectionTestUtils.getField(dispatcher, "consecutiveFailures"));
+	}
+
+	private void assertBackedOffBy(long delayMs, long before) {
+		long retryAtMillis = (Long) ReflectionTestUtils.getField(dispatcher, "retryAtMillis");
+		assertTrue(retryAtMillis >= before + delayMs && retryAtMillis <= System.currentTimeMillis() + delayMs,
+				"retry at " + (retryAtMillis - before) + " ms");
+	}
+
+	private static OutboxEvent event(long id) {
+		OutboxEvent event = new OutboxEvent();
+		event.setId(id);
+		event.setEventType(DomainEvent.BOOKING_CREATED);
+		event.setAggregateId(id);
+		event.setPayload("{}");
+		event.setCreatedAt(LocalDateTime.now());
+		return event;
+	}
+
+	//throws on its first failuresLeft calls and records the event ids of every call
+	private static final class ScriptedSink implements IEventSink {
+
+		private int failuresLeft;
+		private final List<List<Long>> calls = new ArrayList<>();
+
+		@Override
+		public void publish(List<DomainEvent> events) throws Exception {
+			calls.add(events.stream().map(DomainEvent::getEventId).toList());
+			if (failuresLeft > 0) {
+				failuresLeft--;
+				throw new IllegalStateException("sink unavailable");
+			}
+		}
+	}
+}
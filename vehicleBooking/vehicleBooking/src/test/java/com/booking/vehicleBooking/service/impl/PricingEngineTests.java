@@ -0,0 +1,84 @@
+package com.booking.vehicleBooking.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class PricingEngineTests {
+
+	private PricingEngine pricingEngine;
+
+	@BeforeEach
+	void setUp() {
+		pricingEngine = new PricingEngine();
+		ReflectionTestUtils.setField(pricingEngine, "weekendMultiplierBp", 12000L);
+		ReflectionTestUtils.setField(pricingEngine, "seasonsProperty", "06-15..09-01=11500,12-20..01-05=13000");
+		ReflectionTestUtils.setField(pricingEngine, "includedMilesPerDay", 200L);
+		ReflectionTestUtils.setField(pricingEngine, "mileageTiersProperty", "500:0.25,2000:0.20,*:0.15");
+		pricingEngine.parseRateTables();
+	}
+
+	@Test
+	void mileageIsChargedPerTier() {
+		assertEquals(0, pricingEngine.mileageCents(400, 2));
+		assertEquals(25, pricingEngine.mileageCents(401, 2));
+		//first tier ends at 500 extra miles
+		assertEquals(12500, pricingEngine.mileageCents(700, 1));
+		assertEquals(12520, pricingEngine.mileageCents(701, 1));
+		//second tier ends at 2000 extra miles, the last tier is open ended
+		assertEquals(42500, pricingEngine.mileageCents(2200, 1));
+		assertEquals(42515, pricingEngine.mileageCents(2201, 1));
+		assertEquals(42500 + 10000 * 15, pricingEngine.mileageCents(12200, 1));
+	}
+
+	@Test
+	void weekendAndSeasonMultipliersCompound() {
+		//Wednesday outside any season, Saturday outside any season
+		assertEquals(10000, dayBp(LocalDate.of(2040, 12, 19)));
+		assertEquals(12000, dayBp(LocalDate.of(2040, 9, 1)));
+		//summer season starts on its first day, alone and on a Saturday
+		assertEquals(11500, dayBp(LocalDate.of(2040, 6, 15)));
+		assertEquals(13800, dayBp(LocalDate.of(2040, 7, 7)));
+	}
+
+	@Test
+	void seasonWrappingTheNewYearEndsOnItsLastDay() {
+		assertEquals(13000, dayBp(LocalDate.of(2040, 12, 20)));
+		assertEquals(15600, dayBp(LocalDate.of(2040, 12, 22)));
+		assertEquals(13000, dayBp(LocalDate.of(2041, 1, 1)));
+		assertEquals(13000, dayBp(LocalDate.of(2041, 1, 4)));
+		//the end is exclusive: 01-05 is a plain Saturday
+		assertEquals(12000, dayBp(LocalDate.of(2041, 1, 5)));
+
+		//12-19 + 12 season weekdays + 4 season weekend days + 01-05
+		assertEquals(10000 + 12 * 13000 + 4 * 15600 + 12000,
+				pricingEngine.dayFactorBp(LocalDate.of(2040, 12, 19), LocalDate.of(2041, 1, 6)));
+	}
+
+	@Test
+	void rangesInsideAndOutsideTheHorizonPriceAlike() {
+		//the Gregorian calendar repeats every 400 years, weekdays included
+		LocalDate checkIn = LocalDate.now().plusDays(10);
+		LocalDate checkOut = checkIn.plusDays(200);
+		assertEquals(pricingEngine.dayFactorBp(checkIn.plusYears(400), checkOut.plusYears(400)),
+				pricingEngine.dayFactorBp(checkIn, checkOut));
+	}
+
+	@Test
+	void rentalIsRoundedHalfUpToTheCent() {
+		assertEquals(4999, PricingEngine.rentalCents(PricingEngine.toCents(new BigDecimal("49.99")), 10000));
+		//49.99 x 1.15 = 57.4885
+		assertEquals(5749, PricingEngine.rentalCents(4999, 11500));
+		//0.05 x 1.5 = 0.075
+		assertEquals(8, PricingEngine.rentalCents(5, 15000));
+	}
+
+	private long dayBp(LocalDate date) {
+		return pricingEngine.dayFactorBp(date, date.plusDays(1));
+	}
+}
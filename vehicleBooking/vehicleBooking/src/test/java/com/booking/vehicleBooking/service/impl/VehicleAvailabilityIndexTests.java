@@ -0,0 +1,237 @@
+package com.booking.vehicleBooking.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class VehicleAvailabilityIndexTests {
+
+	private static final int HORIZON = VehicleAvailabilityIndex.HORIZON_DAYS;
+
+	private JdbcTemplate jdbcTemplate;
+	private VehicleAvailabilityIndex index;
+	//day 0 of the bitmaps, every date below is an offset from it
+	private LocalDate start;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate = mock(JdbcTemplate.class);
+		index = new VehicleAvailabilityIndex();
+		ReflectionTestUtils.setField(index, "jdbcTemplate", jdbcTemplate);
+		start = LocalDate.ofEpochDay((Long) ReflectionTestUtils.getField(index, "horizonStart"));
+	}
+
+	@Test
+	void everyRangeAgreesWithTheBookingsAroundWordAndHorizonEdges() {
+		//bits 63/64 and 127/128 sit on word edges, the last two ranges cross or lie past the horizon
+		int[][] booked = { { 0, 1 }, { 63, 64 }, { 127, 129 }, { 191, 192 }, { 256, 320 },
+				{ HORIZON - 1, HORIZON + 1 }, { HORIZON + 3, HORIZON + 4 } };
+		index.putVehicle(1L, "Sedan");
+		for (int i = 0; i < booked.length; i++) {
+			index.addBooking((long) i, 1L, day(booked[i][0]), day(booked[i][1]));
+		}
+
+		for (int first = 0; first <= HORIZON + 6; first++) {
+			for (int length = 1; length <= 140; length++) {
+				boolean free = true;
+				for (int[] range : booked) {
+					if (range[1] > first && range[0] < first + length) free = false;
+				}
+				assertEquals(free, index.isAvailable(1L, day(first), day(first + length)), "[" + first + ", " + (first + length) + ")");
+			}
+		}
+	}
+
+	@Test
+	void rangesPastTheHorizonAreCheckedAgainstTheSpans() {
+		index.putVehicle(1L, "Sedan");
+		index.addBooking(1L, 1L, day(HORIZON + 50), day(HORIZON + 55));
+		index.addBooking(2L, 1L, day(HORIZON - 2), day(HORIZON + 10));
+
+		assertFalse(index.isAvailable(1L, day(HORIZON - 1), day(HORIZON)));
+		assertFalse(index.isAvailable(1L, day(HORIZON), day(HORIZON + 1)));
+		assertFalse(index.isAvailable(1L, day(HORIZON + 54), day(HORIZON + 60)));
+		assertTrue(index.isAvailable(1L, day(HORIZON + 10), day(HORIZON + 50)));
+		assertTrue(index.isAvailable(1L, day(HORIZON - 30), day(HORIZON - 2)));
+		//starts before the horizon: no mask either
+		assertFalse(index.isAvailable(1L, start.minusDays(3), day(HORIZON)));
+		assertTrue(index.isAvailable(1L, start.minusDays(3), day(1)));
+	}
+
+	@Test
+	void removingABookingReMergesTheOnesLeft() {
+		//the same bookings inside the horizon (bitmap) and past it (spans only)
+		for (int offset : new int[] { 0, HORIZON + 100 }) {
+			Long vehicleId = (long) offset + 1;
+			index.putVehicle(vehicleId, "Van");
+			index.addBooking(1L, vehicleId, day(offset + 1), day(offset + 5));
+			index.addBooking(2L, vehicleId, day(offset + 3), day(offset + 8));
+			index.addBooking(3L, vehicleId, day(offset + 8), day(offset + 10));
+			assertFalse(index.isAvailable(vehicleId, day(offset + 5), day(offset + 8)));
+
+			//B bridged A and C, without it the gap opens again
+			index.removeBooking(2L, vehicleId);
+			assertTrue(index.isAvailable(vehicleId, day(offset + 5), day(offset + 8)));
+			assertFalse(index.isAvailable(vehicleId, day(offset + 4), day(offset + 5)));
+			assertFalse(index.isAvailable(vehicleId, day(offset + 7), day(offset + 9)));
+
+			index.removeBooking(1L, vehicleId);
+			assertTrue(index.isAvailable(vehicleId, day(offset + 1), day(offset + 8)));
+
+			index.addBooking(2L, vehicleId, day(offset + 3), day(offset + 8));
+			assertFalse(index.isAvailable(vehicleId, day(offset + 7), day(offset + 8)));
+			assertTrue(index.isAvailable(vehicleId, day(offset + 1), day(offset + 3)));
+			assertTrue(index.isAvailable(vehicleId, day(offset + 10), day(offset + 12)));
+		}
+	}
+
+	@Test
+	void searchHalfwayThroughARollUsesTheSpansForSlotsNotYetRedrawn() {
+		LocalDate today = start;
+		ReflectionTestUtils.setField(index, "horizonStart", today.minusDays(1).toEpochDay());
+		index.putVehicle(1L, "Sedan");
+		index.putVehicle(2L, "Sedan");
+		index.addBooking(1L, 1L, today.plusDays(63), today.plusDays(65));
+		index.addBooking(2L, 2L, today.plusDays(10), today.plusDays(12));
+
+		//the roll has moved the horizon and redrawn vehicle 1, but not vehicle 2 yet
+		ReflectionTestUtils.setField(index, "horizonStart", today.toEpochDay());
+		ReflectionTestUtils.invokeMethod(slot(1L), "redrawDays", today.toEpochDay());
+
+		assertEquals(List.of(2L), index.findAvailableVehicleIds(today.plusDays(64), today.plusDays(65), "sedan"));
+		assertEquals(List.of(1L), index.findAvailableVehicleIds(today.plusDays(11), today.plusDays(12), "sedan"));
+		assertEquals(Set.of(1L, 2L), Set.copyOf(index.findAvailableVehicleIds(today.plusDays(65), today.plusDays(66), "sedan")));
+
+		//a booking landing on the stale slot is drawn against that slot's own start
+		index.addBooking(3L, 2L, today.plusDays(20), today.plusDays(21));
+		assertEquals(List.of(1L), index.findAvailableVehicleIds(today.plusDays(20), today.plusDays(21), "sedan"));
+	}
+
+	@Test
+	void rollRedrawsEveryBitmapFromTheNewStart() {
+		LocalDate today = start;
+		ReflectionTestUtils.setField(index, "horizonStart", today.minusDays(1).toEpochDay());
+		index.putVehicle(1L, "Sedan");
+		index.addBooking(1L, 1L, today.minusDays(1), today.plusDays(1));
+		index.addBooking(2L, 1L, today.plusDays(63), today.plusDays(64));
+
+		index.rollHorizon();
+
+		assertEquals(today.toEpochDay(), (Long) ReflectionTestUtils.getField(index, "horizonStart"));
+		assertEquals(today.toEpochDay(), (Long) ReflectionTestUtils.getField(slot(1L), "daysStart"));
+		long[] days = (long[]) ReflectionTestUtils.getField(slot(1L), "days");
+		assertEquals(1L | 1L << 63, days[0]);
+		assertEquals(0L, days[1]);
+		assertFalse(index.isAvailable(1L, today, today.plusDays(1)));
+		assertTrue(index.isAvailable(1L, today.plusDays(1), today.plusDays(63)));
+		assertFalse(index.isAvailable(1L, today.plusDays(62), today.plusDays(64)));
+
+		//already on today: nothing to redraw
+		index.flushOccupancy();
+		index.rollHorizon();
+		index.flushOccupancy();
+		verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+	}
+
+	@Test
+	void freeFromSkipsVehiclesWithABookingCheckingOutLater() {
+		LocalDate today = start;
+		index.putVehicle(1L, "Sedan");
+		index.putVehicle(2L, "Sedan");
+		index.putVehicle(3L, "Van");
+		index.putVehicle(5L, "Van");
+		index.addBooking(1L, 1L, today.minusDays(3), today);
+		index.addBooking(2L, 2L, today.minusDays(3), today.plusDays(1));
+		//a booking for a vehicle the index has no type for yet
+		index.addBooking(4L, 4L, today.minusDays(10), today.minusDays(5));
+		index.addBooking(5L, 5L, today.minusDays(10), today.minusDays(5));
+		index.addBooking(6L, 5L, today.plusDays(HORIZON + 20), today.plusDays(HORIZON + 21));
+
+		assertEquals(Set.of(1L, 3L), Set.copyOf(index.findVehicleIdsFreeFrom(today)));
+
+		index.removeBooking(6L, 5L);
+		assertEquals(Set.of(1L, 3L, 5L), Set.copyOf(index.findVehicleIdsFreeFrom(today)));
+		assertEquals(Set.of(1L, 2L, 3L, 5L), Set.copyOf(index.findVehicleIdsFreeFrom(today.plusDays(1))));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void flushWritesChangedBitmapsOnceAndDeletesRemovedVehicles() {
+		index.putVehicle(1L, "Sedan");
+		index.putVehicle(2L, "Van");
+		index.addBooking(1L, 1L, day(63), day(65));
+		index.addBooking(2L, 1L, day(HORIZON - 1), day(HORIZON + 40));
+		index.removeVehicle(2L);
+
+		index.flushOccupancy();
+
+		ArgumentCaptor<List<Object[]>> upserts = ArgumentCaptor.forClass(List.class);
+		ArgumentCaptor<List<Object[]>> deletes = ArgumentCaptor.forClass(List.class);
+		verify(jdbcTemplate).batchUpdate(startsWith("INSERT"), upserts.capture());
+		verify(jdbcTemplate).batchUpdate(startsWith("DELETE"), deletes.capture());
+		assertEquals(1, upserts.getValue().size());
+		Object[] row = upserts.getValue().get(0);
+		assertEquals(1L, row[0]);
+		assertEquals(start, row[1]);
+		byte[] expected = new byte[(HORIZON + 63) / 64 * 8];
+		//day 63 is the top bit of byte 7, day 64 the low bit of byte 8, day 729 bit 1 of byte 91
+		expected[7] = (byte) 0x80;
+		expected[8] = 0x01;
+		expected[(HORIZON - 1) / 8] = (byte) (1 << ((HORIZON - 1) % 8));
+		assertArrayEquals(expected, (byte[]) row[2]);
+		assertEquals(1, deletes.getValue().size());
+		assertArrayEquals(new Object[] { 2L }, deletes.getValue().get(0));
+
+		//nothing changed since
+		index.flushOccupancy();
+		verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+	}
+
+	@Test
+	void failedFlushIsRetriedOnTheNextOne() {
+		index.putVehicle(1L, "Sedan");
+		index.addBooking(1L, 1L, day(1), day(2));
+		when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+				.thenThrow(new DataAccessResourceFailureException("connection lost"))
+				.thenReturn(new int[] { 1 });
+
+		assertThrows(DataAccessResourceFailureException.class, index::flushOccupancy);
+		index.flushOccupancy();
+		index.flushOccupancy();
+
+		verify(jdbcTemplate, times(2)).batchUpdate(startsWith("INSERT"), anyList());
+		verify(jdbcTemplate, never()).batchUpdate(startsWith("DELETE"), anyList());
+	}
+
+	private LocalDate day(int offset) {
+		return start.plusDays(offset);
+	}
+
+	private Object slot(Long vehicleId) {
+		@SuppressWarnings("unchecked")
+		Map<Long, Object> vehicles = (Map<Long, Object>) ReflectionTestUtils.getField(index, "vehicles");
+		return vehicles.get(vehicleId);
+	}
+}
@@ -0,0 +1,117 @@
+package com.booking.vehicleBooking.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.booking.vehicleBooking.TestFixtures;
+import com.booking.vehicleBooking.dto.Response;
+import com.booking.vehicleBooking.entity.Booking;
+import com.booking.vehicleBooking.repo.BookingRepository;
+import com.booking.vehicleBooking.service.interfac.IBookingService;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class VehicleBookingLocksTests {
+
+	private static final int THREADS = 16;
+
+	@Autowired
+	private IBookingService bookingService;
+
+	@Autowired
+	private BookingRepository bookingRepository;
+
+	@Autowired
+	private VehicleBookingLocks vehicleBookingLocks;
+
+	@Autowired
+	private TestFixtures testFixtures;
+
+	@Test
+	void concurrentOverlappingBookingsAdmitExactlyOne() throws Exception {
+		Long userId = testFixtures.saveUser().getId();
+		Long vehicleId = testFixtures.saveVehicle("Sedan", 50).getId();
+
+		//[d, d+3), [d+1, d+4) and [d+2, d+5) all share d+2, so every pair overlaps
+		LocalDate base = LocalDate.now().plusDays(30);
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		List<Future<Response>> responses = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			Booking booking = new Booking();
+			booking.setCheckInDate(base.plusDays(t % 3));
+			booking.setCheckOutDate(base.plusDays(t % 3 + 3));
+			booking.setNumOfPassengers(1);
+			booking.setNumOfMiles(100);
+			responses.add(executor.submit(() -> {
+				start.await();
+				return bookingService.saveBooking(vehicleId, userId, booking);
+			}));
+		}
+		start.countDown();
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+		int admitted = 0;
+		for (Future<Response> response : responses) {
+			int statusCode = response.get().getStatusCode();
+			if (statusCode == 200) {
+				admitted++;
+			} else {
+				assertEquals(404, statusCode, response.get().getMessage());
+			}
+		}
+		assertEquals(1, admitted);
+		assertEquals(1, bookingRepository.findBookingRangesOverlapping(List.of(vehicleId), base.minusDays(1), base.plusDays(10)).size());
+	}
+
+	@Test
+	void bookingWaitsOnlyForItsOwnVehicle() throws Exception {
+		Long userId = testFixtures.saveUser().getId();
+		Long heldVehicleId = testFixtures.saveVehicle("Sedan", 50).getId();
+		Long otherVehicleId = testFixtures.saveVehicle("Sedan", 50).getId();
+		Lock heldLock = vehicleBookingLocks.lockFor(heldVehicleId);
+		assertNotSame(heldLock, vehicleBookingLocks.lockFor(otherVehicleId));
+
+		LocalDate base = LocalDate.now().plusDays(30);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		heldLock.lock();
+		Future<Response> waiting;
+		try {
+			waiting = executor.submit(() -> bookingService.saveBooking(heldVehicleId, userId, booking(base)));
+			//a booking in flight on one vehicle does not hold up another vehicle
+			Response other = executor.submit(() -> bookingService.saveBooking(otherVehicleId, userId, booking(base))).get(30, TimeUnit.SECONDS);
+			assertEquals(200, other.getStatusCode(), other.getMessage());
+			assertFalse(waiting.isDone());
+		} finally {
+			heldLock.unlock();
+		}
+		assertEquals(200, waiting.get(30, TimeUnit.SECONDS).getStatusCode());
+		executor.shutdown();
+	}
+
+	private static Booking booking(LocalDate checkIn) {
+		Booking booking = new Booking();
+		booking.setCheckInDate(checkIn);
+		booking.setCheckOutDate(checkIn.plusDays(3));
+		booking.setNumOfPassengers(1);
+		return booking;
+	}
+}
@@ -0,0 +1,91 @@
+package com.booking.vehicleBooking.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalAnswers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.booking.vehicleBooking.TestFixtures;
+import com.booking.vehicleBooking.dto.Response;
+import com.booking.vehicleBooking.entity.Booking;
+import com.booking.vehicleBooking.entity.Vehicle;
+import com.booking.vehicleBooking.repo.VehicleRepository;
+import com.booking.vehicleBooking.service.interfac.IBookingService;
+import com.booking.vehicleBooking.service.interfac.IVehicleService;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class VehicleByIdCacheTests {
+
+	@Autowired
+	private IVehicleService vehicleService;
+
+	@Autowired
+	private IBookingService bookingService;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private TestFixtures testFixtures;
+
+	@Test
+	void loadThatFinishesAfterABookingDoesNotHideIt() throws Exception {
+		Long userId = testFixtures.saveUser().getId();
+		Long vehicleId = testFixtures.saveVehicle("Sedan", 50).getId();
+
+		//the lookup reads the vehicle and its bookings, then holds them until the booking below has committed
+		VehicleService target = AopTestUtils.getUltimateTargetObject(vehicleService);
+		VehicleRepository repository = (VehicleRepository) ReflectionTestUtils.getField(target, "vehicleRepository");
+		VehicleRepository slowRepository = mock(VehicleRepository.class, AdditionalAnswers.delegatesTo(repository));
+		CountDownLatch loaded = new CountDownLatch(1);
+		CountDownLatch booked = new CountDownLatch(1);
+		doAnswer(invocation -> {
+			Optional<Vehicle> vehicle = repository.findById(vehicleId);
+			vehicle.ifPresent(found -> found.getBookings().size());
+			loaded.countDown();
+			assertTrue(booked.await(30, TimeUnit.SECONDS));
+			return vehicle;
+		}).when(slowRepository).findById(vehicleId);
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		ReflectionTestUtils.setField(target, "vehicleRepository", slowRepository);
+		try {
+			Future<Response> staleLoad = executor.submit(() -> transactionTemplate.execute(status -> vehicleService.getVehicleById(vehicleId)));
+			assertTrue(loaded.await(30, TimeUnit.SECONDS));
+
+			Booking booking = new Booking();
+			booking.setCheckInDate(LocalDate.now().plusDays(30));
+			booking.setCheckOutDate(LocalDate.now().plusDays(33));
+			booking.setNumOfPassengers(1);
+			assertEquals(200, bookingService.saveBooking(vehicleId, userId, booking).getStatusCode());
+			booked.countDown();
+
+			//the load puts its response after the booking moved the vehicle's version on
+			assertEquals(0, staleLoad.get(30, TimeUnit.SECONDS).getVehicle().getBookings().size());
+		} finally {
+			ReflectionTestUtils.setField(target, "vehicleRepository", repository);
+			executor.shutdown();
+		}
+
+		Response response = transactionTemplate.execute(status -> vehicleService.getVehicleById(vehicleId));
+		assertEquals(1, response.getVehicle().getBookings().size());
+	}
+}
@@ -0,0 +1,120 @@
+package com.booking.vehicleBooking.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.booking.vehicleBooking.dto.Response;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class VehicleImportServiceTests {
+
+	private static final String HEADER = "vehicleType,vehiclePrice,vehiclePhotoUrl,vehicleDescription\n";
+
+	@Autowired
+	private VehicleImportService vehicleImportService;
+
+	@Autowired
+	private VehicleCatalogVersion vehicleCatalogVersion;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void quotedFieldsKeepCommasAndDoubledQuotes() {
+		assertEquals(List.of("Sedan", "12.50", "a, b", "say \"hi\""), VehicleImportService.splitCsvLine("Sedan,12.50,\"a, b\",\"say \"\"hi\"\"\""));
+		assertEquals(List.of("", "x", ""), VehicleImportService.splitCsvLine(",x,"));
+		assertEquals(List.of(""), VehicleImportService.splitCsvLine("\"\""));
+		assertThrows(IllegalArgumentException.class, () -> VehicleImportService.splitCsvLine("Sedan,\"open"));
+	}
+
+	@Test
+	void headerIsMatchedByNameIgnoringCaseAndOrder() {
+		Map<String, Integer> columns = VehicleImportService.readCsvHeader(" VehiclePhotoUrl ,vehicleprice,VEHICLETYPE");
+
+		assertEquals(Map.of("vehiclephotourl", 0, "vehicleprice", 1, "vehicletype", 2), columns);
+		assertThrows(IllegalArgumentException.class, () -> VehicleImportService.readCsvHeader("vehicleType,vehiclePrice"));
+	}
+
+	@Test
+	void badRowsAreReportedAndTheRestImported() {
+		String csv = HEADER
+				+ "Sedan,40,https://example.com/1.jpg,rows-1\n"
+				+ "Sedan,-5,https://example.com/2.jpg,rows-1\n"
+				+ ",40,https://example.com/3.jpg,rows-1\n"
+				+ "Van,55.5,https://example.com/4.jpg,\"rows-1\"\n";
+
+		Response response = vehicleImportService.importVehicles(stream(csv), "text/csv");
+
+		assertEquals(200, response.getStatusCode(), response.getMessage());
+		assertEquals(2, response.getImportedCount());
+		assertEquals(List.of("line 3: vehiclePrice must be greater than 0", "line 4: vehicleType is required"),
+				response.getErrors());
+		assertEquals(2, countDescribed("rows-1"));
+	}
+
+	@Test
+	void failingBatchRollsBackAsAWholeAndEarlierBatchesStay() {
+		StringBuilder csv = new StringBuilder(HEADER);
+		for (int i = 0; i < VehicleImportService.IMPORT_BATCH_SIZE + 3; i++) {
+			csv.append("Sedan,40,https://example.com/").append(i).append(".jpg,batch-1\n");
+		}
+		//too long for the column: parses, but the database rejects the second batch
+		csv.append("x".repeat(300)).append(",40,https://example.com/long.jpg,batch-1\n");
+
+		Response response = vehicleImportService.importVehicles(stream(csv.toString()), "text/csv");
+
+		assertEquals(200, response.getStatusCode(), response.getMessage());
+		assertEquals(VehicleImportService.IMPORT_BATCH_SIZE, response.getImportedCount());
+		assertEquals(4, response.getErrors().size());
+		assertTrue(response.getErrors().get(0).startsWith("line " + (VehicleImportService.IMPORT_BATCH_SIZE + 2) + ": not saved, batch failed"),
+				response.getErrors().get(0));
+		assertEquals(VehicleImportService.IMPORT_BATCH_SIZE, countDescribed("batch-1"));
+	}
+
+	@Test
+	void catalogVersionMovesWhenTheStreamFailsAfterACommittedBatch() {
+		StringBuilder csv = new StringBuilder(HEADER);
+		for (int i = 0; i < VehicleImportService.IMPORT_BATCH_SIZE; i++) {
+			csv.append("Sedan,40,https://example.com/").append(i).append(".jpg,broken-1\n");
+		}
+		//the client goes away once the first batch is in
+		InputStream disconnecting = new InputStream() {
+			@Override
+			public int read() throws IOException {
+				throw new IOException("connection reset");
+			}
+		};
+		long before = vehicleCatalogVersion.current();
+
+		Response response = vehicleImportService.importVehicles(new SequenceInputStream(stream(csv.toString()), disconnecting), "text/csv");
+
+		assertEquals(500, response.getStatusCode());
+		assertEquals(VehicleImportService.IMPORT_BATCH_SIZE, countDescribed("broken-1"));
+		assertNotEquals(before, vehicleCatalogVersion.current());
+	}
+
+	private int countDescribed(String description) {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM vehicles WHERE vehicle_description = ?", Integer.class, description);
+	}
+
+	private static InputStream stream(String body) {
+		return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,128 @@
+package com.booking.vehicleBooking.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.booking.vehicleBooking.TestFixtures;
+import com.booking.vehicleBooking.dto.Response;
+import com.booking.vehicleBooking.dto.VehicleDTO;
+import com.booking.vehicleBooking.entity.Booking;
+import com.booking.vehicleBooking.repo.BookingRepository;
+import com.booking.vehicleBooking.repo.VehicleRepository;
+import com.booking.vehicleBooking.service.interfac.IVehicleService;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class VehicleSearchPagingTests {
+
+	@Autowired
+	private IVehicleService vehicleService;
+
+	@Autowired
+	private VehicleRepository vehicleRepository;
+
+	@Autowired
+	private BookingRepository bookingRepository;
+
+	@Autowired
+	private VehicleAvailabilityIndex vehicleAvailabilityIndex;
+
+	@Autowired
+	private PricingEngine pricingEngine;
+
+	@Autowired
+	private TestFixtures testFixtures;
+
+	private final LocalDate checkIn = LocalDate.now().plusDays(20);
+	private final LocalDate checkOut = checkIn.plusDays(3);
+
+	//vehicle ids in insertion order: Sedan 30, Van 20, Sedan 30, SUV 10, Van 20, Sedan 30, SUV 25 (booked)
+	private final List<Long> ids = new ArrayList<>();
+
+	//the catalog is emptied first so the counts only see these vehicles
+	@BeforeEach
+	void setUp() {
+		bookingRepository.deleteAll();
+		vehicleRepository.deleteAll();
+		ids.clear();
+		ids.add(saveVehicle("Sedan", 30));
+		ids.add(saveVehicle("Van", 20));
+		ids.add(saveVehicle("Sedan", 30));
+		ids.add(saveVehicle("SUV", 10));
+		ids.add(saveVehicle("Van", 20));
+		ids.add(saveVehicle("Sedan", 30));
+		ids.add(saveVehicle("SUV", 25));
+
+		Booking booking = new Booking();
+		booking.setCheckInDate(checkIn.minusDays(1));
+		booking.setCheckOutDate(checkOut);
+		booking.setNumOfPassengers(1);
+		booking.setUser(testFixtures.saveUser());
+		booking.setVehicle(vehicleRepository.findById(ids.get(6)).orElseThrow());
+		bookingRepository.save(booking);
+
+		vehicleAvailabilityIndex.rebuild();
+		pricingEngine.loadRates();
+	}
+
+	@Test
+	void priceTiesAreBrokenById() {
+		assertEquals(List.of(ids.get(3), ids.get(1), ids.get(4), ids.get(0), ids.get(2), ids.get(5)), allPages("price", 2));
+		assertEquals(List.of(ids.get(0), ids.get(2), ids.get(5), ids.get(1), ids.get(4), ids.get(3)), allPages("price_desc", 2));
+		//type ignoring case (Sedan, SUV, Van), then price, then id
+		assertEquals(List.of(ids.get(0), ids.get(2), ids.get(5), ids.get(3), ids.get(1), ids.get(4)), allPages("type", 4));
+	}
+
+	@Test
+	void pagesDoNotDependOnThePageSize() {
+		assertEquals(allPages("price", 6), allPages("price", 1));
+		assertEquals(allPages("price", 6), allPages("price", 4));
+	}
+
+	@Test
+	void totalCountLeavesOutBookedVehicles() {
+		Response response = vehicleService.getAvailableVehiclesByDateAndTypes(checkIn, checkOut, null, "price", 0, 2);
+
+		assertEquals(200, response.getStatusCode(), response.getMessage());
+		assertEquals(6, response.getTotalCount());
+		assertEquals(2, response.getVehicleList().size());
+
+		Response pastTheEnd = vehicleService.getAvailableVehiclesByDateAndTypes(checkIn, checkOut, null, "price", 6, 2);
+		assertEquals(6, pastTheEnd.getTotalCount());
+		assertTrue(pastTheEnd.getVehicleList().isEmpty());
+	}
+
+	@Test
+	void typeFilterAppliesBeforePaging() {
+		Response response = vehicleService.getAvailableVehiclesByDateAndTypes(checkIn, checkOut, "Sedan", "price", 1, 5);
+
+		assertEquals(3, response.getTotalCount());
+		assertEquals(List.of(ids.get(2), ids.get(5)), response.getVehicleList().stream().map(VehicleDTO::getId).toList());
+	}
+
+	private List<Long> allPages(String sort, int pageSize) {
+		List<Long> all = new ArrayList<>();
+		for (int offset = 0; ; offset += pageSize) {
+			Response response = vehicleService.getAvailableVehiclesByDateAndTypes(checkIn, checkOut, null, sort, offset, pageSize);
+			assertEquals(200, response.getStatusCode(), response.getMessage());
+			if (response.getVehicleList().isEmpty()) {
+				return all;
+			}
+			response.getVehicleList().forEach(vehicle -> all.add(vehicle.getId()));
+		}
+	}
+
+	private Long saveVehicle(String vehicleType, int price) {
+		return testFixtures.saveVehicle(vehicleType, price).getId();
+	}
+}